@@ -0,0 +1,105 @@
+package org.SalimMRP.application;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executor für den HttpServer: ein virtueller Thread pro Anfrage oder ein fester Pool aus Plattform-Threads.
+// Über maxInFlight wird die Zahl gleichzeitig bearbeiteter Anfragen begrenzt; ist das Limit erreicht,
+// wartet der Dispatcher-Thread, bis ein Platz frei wird (Backpressure statt unbegrenzter Warteschlange).
+public final class HttpServerExecutor implements Executor, AutoCloseable {
+
+    public enum Mode {
+        VIRTUAL,
+        PLATFORM,
+        // Alle Anfragen laufen auf dem Dispatcher-Thread des HttpServer (bisheriges Verhalten).
+        DISPATCHER;
+
+        public static Mode parse(String value, Mode defaultValue) {
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring unknown executor mode: " + value);
+                return defaultValue;
+            }
+        }
+    }
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private HttpServerExecutor(ExecutorService delegate, int maxInFlight) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+    }
+
+    // maxInFlight <= 0 bedeutet unbegrenzt. Für DISPATCHER gibt es keinen Executor (null).
+    public static HttpServerExecutor create(Mode mode, int platformThreads, int maxInFlight) {
+        Objects.requireNonNull(mode, "mode must not be null");
+        return switch (mode) {
+            case VIRTUAL -> new HttpServerExecutor(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mrp-http-", 0).factory()),
+                    maxInFlight);
+            case PLATFORM -> new HttpServerExecutor(
+                    Executors.newFixedThreadPool(Math.max(1, platformThreads), Thread.ofPlatform().name("mrp-http-", 0).factory()),
+                    maxInFlight);
+            case DISPATCHER -> null;
+        };
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Objects.requireNonNull(command, "command must not be null");
+        if (permits != null) {
+            permits.acquireUninterruptibly();
+        }
+        inFlight.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release();
+            throw e;
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Wartet kurz auf laufende Anfragen und beendet dann alle Threads.
+    @Override
+    public void close() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(5, TimeUnit.SECONDS)) {
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
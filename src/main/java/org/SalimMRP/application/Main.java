@@ -3,6 +3,7 @@ package org.SalimMRP.application;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.DefaultMediaService;
 import org.SalimMRP.business.DefaultProfileService;
@@ -10,28 +11,48 @@ import org.SalimMRP.business.DefaultRatingService;
 import org.SalimMRP.business.DefaultUserService;
 import org.SalimMRP.business.MediaService;
 import org.SalimMRP.business.ProfileService;
+import org.SalimMRP.business.RatingEventListener;
+import org.SalimMRP.business.RatingLeaderboard;
 import org.SalimMRP.business.RatingService;
+import org.SalimMRP.business.RatingSummaryStore;
+import org.SalimMRP.business.RecommendationCache;
+import org.SalimMRP.business.SearchResultCache;
 import org.SalimMRP.business.UserService;
+import org.SalimMRP.business.auth.HmacTokenService;
 import org.SalimMRP.business.auth.InMemoryTokenService;
+import org.SalimMRP.business.auth.BCryptPasswordHasher;
 import org.SalimMRP.business.auth.PasswordHasher;
 import org.SalimMRP.business.auth.Sha256PasswordHasher;
 import org.SalimMRP.business.auth.TokenService;
 import org.SalimMRP.persistence.ConnectionProvider;
-import org.SalimMRP.persistence.Database;
 import org.SalimMRP.persistence.FavoriteRepository;
+import org.SalimMRP.persistence.CachingMediaRepository;
 import org.SalimMRP.persistence.JdbcMediaRepository;
 import org.SalimMRP.persistence.JdbcRatingRepository;
 import org.SalimMRP.persistence.JdbcUserRepository;
 import org.SalimMRP.persistence.MediaRepository;
+import org.SalimMRP.persistence.PoolSettings;
+import org.SalimMRP.persistence.PooledConnectionProvider;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.ScopedConnectionProvider;
 import org.SalimMRP.persistence.JdbcFavoriteRepository;
 import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.migration.MigrationRunner;
+import org.SalimMRP.presentation.ConnectionScopeFilter;
 import org.SalimMRP.presentation.MediaController;
 import org.SalimMRP.presentation.RatingController;
+import org.SalimMRP.presentation.ResponseWriter;
 import org.SalimMRP.presentation.UserController;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // Startpunkt der Anwendung. Stellt alle benötigten Komponenten zusammen,
 // richtet die HTTP-Routen ein und startet anschließend den eingebauten HTTP-Server auf Port 8080.
@@ -47,36 +68,87 @@ public class Main {
             System.out.println("Starting Media Ratings Platform server on port " + port + "...");
 
             // Aufbau der Infrastruktur: Datenbank, Repositories und Services.
-            ConnectionProvider connectionProvider = Database.fromDefaults();
+            PooledConnectionProvider connectionPool = new PooledConnectionProvider(poolSettingsFromEnvironment());
+            Runtime.getRuntime().addShutdownHook(new Thread(connectionPool::close, "mrp-pool-shutdown"));
+            schedulePoolStatisticsLogging(connectionPool);
+            if (!migrateDatabase(connectionPool)) {
+                System.err.println("Database migration failed, server is not started.");
+                connectionPool.close();
+                return;
+            }
+            // Repository-Aufrufe innerhalb einer HTTP-Anfrage teilen sich eine Verbindung (siehe ConnectionScopeFilter).
+            ScopedConnectionProvider connectionProvider = new ScopedConnectionProvider(connectionPool);
             UserRepository userRepository = new JdbcUserRepository(connectionProvider);
-            MediaRepository mediaRepository = new JdbcMediaRepository(connectionProvider);
+            MediaRepository mediaRepository = createMediaRepository(
+                    new JdbcMediaRepository(connectionProvider), connectionProvider);
             RatingRepository ratingRepository = new JdbcRatingRepository(connectionProvider);
             FavoriteRepository favoriteRepository = new JdbcFavoriteRepository(connectionProvider);
 
-            PasswordHasher passwordHasher = new Sha256PasswordHasher();
-            TokenService tokenService = new InMemoryTokenService();
+            // BCrypt läuft auf einem eigenen, begrenzten Pool; vorhandene SHA-256-Hashes werden beim Login umgestellt.
+            PasswordHasher passwordHasher = new BCryptPasswordHasher(
+                    Settings.getInt("mrp.auth.bcrypt.cost", BCryptPasswordHasher.DEFAULT_COST),
+                    Settings.getInt("mrp.auth.hash-threads", BCryptPasswordHasher.defaultHashThreads()),
+                    Settings.getInt("mrp.auth.hash-queue", BCryptPasswordHasher.DEFAULT_QUEUE_CAPACITY),
+                    new Sha256PasswordHasher());
+            TokenService tokenService = createTokenService();
 
-            UserService userService = new DefaultUserService(userRepository, passwordHasher, tokenService);
-            MediaService mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository);
-            RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository);
-            ProfileService profileService = new DefaultProfileService(userRepository, ratingRepository, favoriteRepository, mediaService);
+            Duration authCacheTtl = Duration.ofSeconds(Settings.getLong("mrp.auth.cache-ttl-seconds",
+                    DefaultUserService.DEFAULT_AUTH_CACHE_TTL.toSeconds()));
+            UserService userService = new DefaultUserService(userRepository, passwordHasher, tokenService, authCacheTtl);
+            RatingLeaderboard leaderboard = new RatingLeaderboard(ratingRepository, userRepository);
+            leaderboard.load();
+            List<RatingEventListener> ratingListeners = new ArrayList<>(List.of(leaderboard));
+            // Im Betrieb mit mehreren Knoten abschalten: Rating-Änderungen anderer Knoten erreichen den Speicher nicht.
+            RatingSummaryStore summaryStore = null;
+            if (Settings.getBoolean("mrp.ratings.summary-store", true)) {
+                summaryStore = new RatingSummaryStore(ratingRepository);
+                summaryStore.load();
+                ratingListeners.add(summaryStore);
+            }
+            SearchResultCache searchCache = createSearchCache();
+            if (searchCache != null) {
+                ratingListeners.add(searchCache);
+            }
+            RecommendationCache recommendationCache = createRecommendationCache();
+            if (recommendationCache != null) {
+                ratingListeners.add(recommendationCache);
+            }
+            MediaService mediaService = new DefaultMediaService(mediaRepository, ratingRepository,
+                    favoriteRepository, summaryStore, searchCache, recommendationCache, ratingListeners);
+            RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository, ratingListeners);
+            ProfileService profileService = new DefaultProfileService(userRepository, ratingRepository, favoriteRepository, mediaService, leaderboard);
 
             ObjectMapper mapper = new ObjectMapper();
             mapper.registerModule(new JavaTimeModule());
             mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
+            // Ein gemeinsamer Writer, damit die ObjectWriter pro Antworttyp nur einmal aufgebaut werden.
+            int compressionThreshold = Settings.getBoolean("mrp.http.compression", true)
+                    ? Settings.getInt("mrp.http.compression.min-size", ResponseWriter.DEFAULT_COMPRESSION_THRESHOLD)
+                    : 0;
+            ResponseWriter responses = new ResponseWriter(mapper, compressionThreshold);
+            List<Filter> filters = requestFilters(connectionProvider);
+
             // Controller registrieren ihre Endpunkte beim Server.
-            UserController userController = new UserController(userService, profileService, mediaService, mapper);
-            userController.registerRoutes(server);
+            UserController userController = new UserController(userService, profileService, mediaService, responses);
+            userController.registerRoutes(server, filters);
 
-            MediaController mediaController = new MediaController(mediaService, userService, mapper);
-            mediaController.registerRoutes(server);
+            MediaController mediaController = new MediaController(mediaService, userService, responses);
+            mediaController.registerRoutes(server, filters);
 
-            RatingController ratingController = new RatingController(ratingService, userService, mapper);
-            ratingController.registerRoutes(server);
+            RatingController ratingController = new RatingController(ratingService, userService, responses);
+            ratingController.registerRoutes(server, filters);
 
-            // Der Server arbeitet mit dem Standard-Executor und läuft anschließend dauerhaft.
-            server.setExecutor(null);
+            // Anfragen laufen standardmäßig auf je einem virtuellen Thread, damit blockierende JDBC-Aufrufe
+            // andere Clients nicht aufhalten; mrp.http.executor=dispatcher stellt das alte Verhalten wieder her.
+            HttpServerExecutor executor = createServerExecutor();
+            server.setExecutor(executor);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                if (executor != null) {
+                    executor.close();
+                }
+            }, "mrp-http-shutdown"));
             server.start();
 
             System.out.println("Server started successfully at http://localhost:" + port);
@@ -87,4 +159,132 @@ public class Main {
             e.printStackTrace();
         }
     }
+
+    // Pool-Parameter lassen sich per -Dmrp.db.… oder MRP_DB_… überschreiben.
+    private static PoolSettings poolSettingsFromEnvironment() {
+        PoolSettings settings = new PoolSettings();
+        settings.setJdbcUrl(Settings.getString("mrp.db.url", settings.getJdbcUrl()));
+        settings.setUsername(Settings.getString("mrp.db.user", settings.getUsername()));
+        settings.setPassword(Settings.getString("mrp.db.password", settings.getPassword()));
+        settings.setMaximumPoolSize(Settings.getInt("mrp.db.pool.max-size", settings.getMaximumPoolSize()));
+        settings.setMinimumIdle(Settings.getInt("mrp.db.pool.min-idle", settings.getMinimumIdle()));
+        settings.setConnectionTimeoutMillis(Settings.getLong("mrp.db.pool.connection-timeout-ms", settings.getConnectionTimeoutMillis()));
+        settings.setIdleTimeoutMillis(Settings.getLong("mrp.db.pool.idle-timeout-ms", settings.getIdleTimeoutMillis()));
+        settings.setMaxLifetimeMillis(Settings.getLong("mrp.db.pool.max-lifetime-ms", settings.getMaxLifetimeMillis()));
+        settings.setValidationTimeoutMillis(Settings.getLong("mrp.db.pool.validation-timeout-ms", settings.getValidationTimeoutMillis()));
+        settings.setLeakDetectionThresholdMillis(Settings.getLong("mrp.db.pool.leak-detection-ms", settings.getLeakDetectionThresholdMillis()));
+        settings.setConnectionTestQuery(Settings.getString("mrp.db.pool.test-query", null));
+        return settings;
+    }
+
+    // Mit gemeinsamem Schlüssel (Base64, mindestens 32 Byte) werden zustandslose, signierte Tokens verwendet,
+    // die jeder Knoten prüfen kann; ohne Schlüssel bleibt es bei den Tokens im Speicher dieses Knotens.
+    private static TokenService createTokenService() {
+        Duration ttl = Duration.ofMinutes(Settings.getLong("mrp.auth.token-ttl-minutes",
+                InMemoryTokenService.DEFAULT_ABSOLUTE_TTL.toMinutes()));
+        String secret = Settings.getString("mrp.auth.token-secret", null);
+        if (secret != null && !secret.isBlank()) {
+            return new HmacTokenService(Base64.getDecoder().decode(secret.trim()), ttl);
+        }
+        InMemoryTokenService tokenService = new InMemoryTokenService(
+                ttl,
+                Duration.ofMinutes(Settings.getLong("mrp.auth.token-idle-minutes",
+                        InMemoryTokenService.DEFAULT_IDLE_TIMEOUT.toMinutes())),
+                Settings.getInt("mrp.auth.max-tokens-per-user", InMemoryTokenService.DEFAULT_MAX_TOKENS_PER_USER));
+        scheduleStatisticsLogging("mrp-token-stats", Settings.getLong("mrp.auth.token-stats-interval-seconds", 0),
+                () -> System.out.println("Tokens: " + tokenService.getStatistics()));
+        return tokenService;
+    }
+
+    // Häufig abgerufene Medien kommen aus einem LRU-Cache im Speicher (0 Einträge = kein Cache).
+    private static MediaRepository createMediaRepository(MediaRepository jdbcRepository,
+                                                         ScopedConnectionProvider connectionProvider) {
+        int maxEntries = Settings.getInt("mrp.cache.media.max-entries", CachingMediaRepository.DEFAULT_MAX_ENTRIES);
+        if (maxEntries <= 0) {
+            return jdbcRepository;
+        }
+        CachingMediaRepository cache = new CachingMediaRepository(jdbcRepository, maxEntries,
+                Duration.ofSeconds(Settings.getLong("mrp.cache.media.ttl-seconds",
+                        CachingMediaRepository.DEFAULT_TTL.toSeconds())), connectionProvider);
+        scheduleStatisticsLogging("mrp-cache-stats", Settings.getLong("mrp.cache.stats-interval-seconds", 0),
+                () -> System.out.println("Media cache: " + cache.getStatistics()));
+        return cache;
+    }
+
+    // Ergebnisse identischer Suchen werden bis zur nächsten Katalogänderung wiederverwendet (0 Einträge = aus).
+    private static SearchResultCache createSearchCache() {
+        int maxEntries = Settings.getInt("mrp.cache.search.max-entries", SearchResultCache.DEFAULT_MAX_ENTRIES);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        SearchResultCache cache = new SearchResultCache(maxEntries,
+                Duration.ofSeconds(Settings.getLong("mrp.cache.search.ttl-seconds",
+                        SearchResultCache.DEFAULT_TTL.toSeconds())));
+        scheduleStatisticsLogging("mrp-search-cache-stats", Settings.getLong("mrp.cache.stats-interval-seconds", 0),
+                () -> System.out.println("Search cache: " + cache.getStatistics()));
+        return cache;
+    }
+
+    // Empfehlungen pro Benutzer; nach Ablauf oder eigenen Änderungen wird im Hintergrund neu berechnet.
+    private static RecommendationCache createRecommendationCache() {
+        int maxEntries = Settings.getInt("mrp.cache.recommendations.max-entries", RecommendationCache.DEFAULT_MAX_ENTRIES);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        RecommendationCache cache = new RecommendationCache(maxEntries,
+                Duration.ofSeconds(Settings.getLong("mrp.cache.recommendations.ttl-seconds",
+                        RecommendationCache.DEFAULT_TTL.toSeconds())));
+        Runtime.getRuntime().addShutdownHook(new Thread(cache::close, "mrp-recommendations-shutdown"));
+        scheduleStatisticsLogging("mrp-recommendation-cache-stats", Settings.getLong("mrp.cache.stats-interval-seconds", 0),
+                () -> System.out.println("Recommendation cache: " + cache.getStatistics()));
+        return cache;
+    }
+
+    private static HttpServerExecutor createServerExecutor() {
+        HttpServerExecutor.Mode mode = HttpServerExecutor.Mode.parse(
+                Settings.getString("mrp.http.executor", null), HttpServerExecutor.Mode.VIRTUAL);
+        int platformThreads = Settings.getInt("mrp.http.platform-threads", Runtime.getRuntime().availableProcessors() * 8);
+        int maxInFlight = Settings.getInt("mrp.http.max-in-flight", 2000);
+        System.out.println("HTTP executor: " + mode.name().toLowerCase() + ", max in-flight requests: "
+                + (maxInFlight > 0 ? maxInFlight : "unbounded"));
+        return HttpServerExecutor.create(mode, platformThreads, maxInFlight);
+    }
+
+    // Gemeinsame Filter für alle Endpunkte; mrp.db.request-scope=false schaltet die geteilte Verbindung ab.
+    private static List<Filter> requestFilters(ScopedConnectionProvider connectionProvider) {
+        List<Filter> filters = new ArrayList<>();
+        if (Settings.getBoolean("mrp.db.request-scope", true)) {
+            boolean snapshots = Settings.getBoolean("mrp.db.request-scope.read-only-get", true);
+            filters.add(new ConnectionScopeFilter(connectionProvider, snapshots));
+        }
+        return filters;
+    }
+
+    // Bringt das Schema auf den aktuellen Stand; mit mrp.db.migrate=false lässt sich das z. B. für reine Lesereplikate abschalten.
+    private static boolean migrateDatabase(ConnectionProvider connectionProvider) {
+        if (!Settings.getBoolean("mrp.db.migrate", true)) {
+            return true;
+        }
+        MigrationRunner runner = new MigrationRunner(
+                connectionProvider, MigrationRunner.loadFromClasspath(MigrationRunner.DEFAULT_LOCATION));
+        return runner.migrate();
+    }
+
+    // Schreibt die Pool-Auslastung in festen Abständen ins Log (0 = aus); per JMX sind die Werte immer verfügbar.
+    private static void schedulePoolStatisticsLogging(PooledConnectionProvider connectionPool) {
+        scheduleStatisticsLogging("mrp-pool-stats", Settings.getLong("mrp.db.pool.stats-interval-seconds", 0),
+                () -> System.out.println("Connection pool: " + connectionPool.getStatistics()));
+    }
+
+    private static void scheduleStatisticsLogging(String threadName, long intervalSeconds, Runnable logger) {
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(logger, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
 }
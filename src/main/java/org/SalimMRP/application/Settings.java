@@ -0,0 +1,57 @@
+package org.SalimMRP.application;
+
+import java.util.Locale;
+import java.util.Objects;
+
+// Liest Konfigurationswerte aus System-Properties (z. B. -Dmrp.db.pool.max-size=20) oder
+// Umgebungsvariablen (z. B. MRP_DB_POOL_MAX_SIZE). System-Properties haben Vorrang.
+public final class Settings {
+
+    private Settings() {
+    }
+
+    public static String getString(String key, String defaultValue) {
+        Objects.requireNonNull(key, "key must not be null");
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(toEnvironmentName(key));
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    // Aus "mrp.db.pool.max-size" wird "MRP_DB_POOL_MAX_SIZE".
+    static String toEnvironmentName(String key) {
+        return key.replace('.', '_').replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
@@ -1,11 +1,14 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.MediaPage;
 import org.SalimMRP.business.dto.MediaSearchCriteria;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.MediaRepository;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.RatingSummary;
 
@@ -17,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 // Verwaltet Media-Einträge, Favoriten sowie Such- und Empfehlungsläufe.
@@ -24,22 +28,63 @@ public class DefaultMediaService implements MediaService {
 
     private static final int MIN_RELEASE_YEAR = 1900;
     private static final int MAX_RELEASE_YEAR = 2100;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final MediaRepository mediaRepository;
     private final RatingRepository ratingRepository;
     private final FavoriteRepository favoriteRepository;
+    private final RatingSummaryStore summaryStore;
+    private final SearchResultCache searchCache;
+    private final RecommendationCache recommendationCache;
+    private final List<RatingEventListener> ratingListeners;
 
     public DefaultMediaService(MediaRepository mediaRepository,
                                RatingRepository ratingRepository,
                                FavoriteRepository favoriteRepository) {
+        this(mediaRepository, ratingRepository, favoriteRepository, null, null, null);
+    }
+
+    // Mit summaryStore kommen die Rating-Kennzahlen aus dem Speicher statt aus der Datenbank.
+    public DefaultMediaService(MediaRepository mediaRepository,
+                               RatingRepository ratingRepository,
+                               FavoriteRepository favoriteRepository,
+                               RatingSummaryStore summaryStore) {
+        this(mediaRepository, ratingRepository, favoriteRepository,
+                Objects.requireNonNull(summaryStore, "summaryStore must not be null"), null, null);
+    }
+
+    // summaryStore, searchCache und recommendationCache sind optional (null = Abfrage der Datenbank).
+    public DefaultMediaService(MediaRepository mediaRepository,
+                               RatingRepository ratingRepository,
+                               FavoriteRepository favoriteRepository,
+                               RatingSummaryStore summaryStore,
+                               SearchResultCache searchCache,
+                               RecommendationCache recommendationCache) {
+        this(mediaRepository, ratingRepository, favoriteRepository, summaryStore, searchCache, recommendationCache,
+                List.of());
+    }
+
+    // ratingListeners erfahren, welche Ratings beim Löschen eines Mediums per Kaskade mit verschwinden.
+    public DefaultMediaService(MediaRepository mediaRepository,
+                               RatingRepository ratingRepository,
+                               FavoriteRepository favoriteRepository,
+                               RatingSummaryStore summaryStore,
+                               SearchResultCache searchCache,
+                               RecommendationCache recommendationCache,
+                               List<RatingEventListener> ratingListeners) {
         this.mediaRepository = Objects.requireNonNull(mediaRepository, "mediaRepository must not be null");
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.favoriteRepository = Objects.requireNonNull(favoriteRepository, "favoriteRepository must not be null");
+        this.summaryStore = summaryStore;
+        this.searchCache = searchCache;
+        this.recommendationCache = recommendationCache;
+        this.ratingListeners = List.copyOf(Objects.requireNonNull(ratingListeners, "ratingListeners must not be null"));
     }
 
     @Override
     public boolean createMedia(Media media) {
-        return isValid(media) && mediaRepository.save(media);
+        return isValid(media) && catalogChanged(mediaRepository.save(media));
     }
 
     @Override
@@ -60,7 +105,7 @@ public class DefaultMediaService implements MediaService {
         return media != null
                 && media.getId() > 0
                 && isValid(media)
-                && mediaRepository.update(media);
+                && catalogChanged(mediaRepository.update(media));
     }
 
     @Override
@@ -68,30 +113,62 @@ public class DefaultMediaService implements MediaService {
         if (id <= 0) {
             return false;
         }
-        return mediaRepository.delete(id);
+        // Die Ratings werden vor dem Löschen geladen, damit die Listener sie anschließend austragen können.
+        List<Rating> ratings = ratingListeners.isEmpty() ? List.of() : ratingRepository.findByMediaId(id);
+        boolean deleted = mediaRepository.delete(id);
+        if (deleted) {
+            if (summaryStore != null) {
+                summaryStore.forget(id);
+            }
+            if (recommendationCache != null) {
+                recommendationCache.invalidateAll();
+            }
+            notifyListeners(listener -> listener.mediaDeleted(id, ratings));
+        }
+        return catalogChanged(deleted);
     }
 
     @Override
     public List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId) {
         Objects.requireNonNull(criteria, "criteria must not be null");
 
-        List<Media> baseMatches = mediaRepository.findAll().stream()
-                .filter(media -> matchesBasicFilters(media, criteria))
-                .toList();
-
-        Map<Integer, RatingSummary> summaryById = summariesFor(baseMatches);
-        List<MediaDetails> details = new ArrayList<>();
+        // Ohne limit liefert die Datenbank alle Treffer; die Seitengröße gilt nur für searchMediaPage.
+        MediaFilter filter = toFilter(criteria);
+        filter.setLimit(criteria.getLimit());
+        SearchResultCache.CachedPage result = search(filter, null);
+        return buildDetailsList(result.matches(), result.summaries(), requestingUserId);
+    }
 
-        for (Media media : baseMatches) {
-            RatingSummary summary = summaryById.get(media.getId());
-            if (!passesRatingThreshold(summary, criteria.getMinimumRating())) {
-                continue;
-            }
-            details.add(buildDetails(media, summary, requestingUserId, false));
-        }
+    @Override
+    public MediaPage searchMediaPage(MediaSearchCriteria criteria, int requestingUserId) {
+        Objects.requireNonNull(criteria, "criteria must not be null");
 
-        details.sort(comparatorFor(criteria));
-        return details;
+        // Filter, Mindestbewertung, Sortierung und Blättern übernimmt die Datenbank.
+        // Ein zusätzlicher Datensatz zeigt an, ob eine weitere Seite existiert.
+        int pageSize = pageSizeFor(criteria);
+        MediaFilter filter = toFilter(criteria);
+        filter.setLimit(pageSize + 1);
+        SearchResultCache.CachedPage cached = search(filter, pageSize);
+        List<Media> matches = cached.matches();
+        Map<Integer, RatingSummary> summaries = cached.summaries();
+        boolean hasMore = cached.hasMore();
+        // Favoriten ändern sich unabhängig vom Katalog und werden daher immer frisch geladen.
+        List<MediaDetails> details = buildDetailsList(matches, summaries, requestingUserId);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Media last = matches.get(matches.size() - 1);
+            RatingSummary lastSummary = summaries.get(last.getId());
+            nextCursor = new MediaCursor(
+                    criteria.getSortField(),
+                    criteria.getSortDirection(),
+                    last.getId(),
+                    last.getTitle(),
+                    last.getReleaseYear(),
+                    lastSummary != null ? lastSummary.getAverageScore() : 0.0
+            ).encode();
+        }
+        return new MediaPage(details, nextCursor);
     }
 
     @Override
@@ -102,7 +179,15 @@ public class DefaultMediaService implements MediaService {
         }
         Map<Integer, RatingSummary> summary = summariesFor(List.of(media));
         List<Rating> ratings = ratingRepository.findByMediaId(id);
-        return buildDetails(media, summary.get(id), requestingUserId, true, ratings);
+        return buildDetails(media, summary.get(id), requestingUserId, ratings);
+    }
+
+    @Override
+    public DataVersion getMediaVersion(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        return mediaRepository.findVersion(id);
     }
 
     @Override
@@ -114,7 +199,7 @@ public class DefaultMediaService implements MediaService {
         if (media == null) {
             return false;
         }
-        return favoriteRepository.addFavorite(userId, mediaId);
+        return favoritesChanged(userId, favoriteRepository.addFavorite(userId, mediaId));
     }
 
     @Override
@@ -122,7 +207,7 @@ public class DefaultMediaService implements MediaService {
         if (userId <= 0 || mediaId <= 0) {
             return false;
         }
-        return favoriteRepository.removeFavorite(userId, mediaId);
+        return favoritesChanged(userId, favoriteRepository.removeFavorite(userId, mediaId));
     }
 
     @Override
@@ -135,16 +220,9 @@ public class DefaultMediaService implements MediaService {
             return List.of();
         }
 
-        List<Media> favorites = favoriteIds.stream()
-                .map(mediaRepository::findById)
-                .filter(Objects::nonNull)
-                .toList();
+        List<Media> favorites = mediaRepository.findByIds(favoriteIds);
 
-        Map<Integer, RatingSummary> summary = summariesFor(favorites);
-        List<MediaDetails> details = new ArrayList<>();
-        for (Media media : favorites) {
-            details.add(buildDetails(media, summary.get(media.getId()), userId, false));
-        }
+        List<MediaDetails> details = buildDetailsList(favorites, summariesFor(favorites), userId);
         details.sort(Comparator.comparing(md -> md.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER));
         return details;
     }
@@ -154,7 +232,14 @@ public class DefaultMediaService implements MediaService {
         if (userId <= 0) {
             return List.of();
         }
+        if (recommendationCache != null) {
+            return recommendationCache.get(userId, this::computeRecommendations);
+        }
+        return computeRecommendations(userId);
+    }
 
+    // Lädt die Ratings des Benutzers und den gesamten Katalog; daher im Normalfall über den Cache aufgerufen.
+    private List<MediaDetails> computeRecommendations(int userId) {
         List<Rating> userRatings = ratingRepository.findByUserId(userId);
         List<Media> allMedia = mediaRepository.findAll();
         Map<Integer, Media> mediaById = allMedia.stream()
@@ -219,8 +304,7 @@ public class DefaultMediaService implements MediaService {
                 continue;
             }
 
-            MediaDetails details = buildDetails(media, summary, userId, false);
-            candidates.add(new Candidate(details, score, average, ratingCount));
+            candidates.add(new Candidate(media, score, average, ratingCount));
         }
 
         if (candidates.isEmpty()) {
@@ -228,87 +312,109 @@ public class DefaultMediaService implements MediaService {
             fallback.setSortField(MediaSearchCriteria.SortField.SCORE);
             fallback.setSortDirection(MediaSearchCriteria.SortDirection.DESC);
             fallback.setMinimumRating(3.5);
-            return searchMedia(fallback, userId).stream()
-                    .limit(10)
-                    .toList();
+            fallback.setLimit(10);
+            return searchMedia(fallback, userId);
         }
 
         candidates.sort(Comparator
                 .comparingInt(Candidate::score).reversed()
                 .thenComparingDouble(Candidate::average).reversed()
                 .thenComparingInt(Candidate::ratingCount).reversed()
-                .thenComparing(c -> c.details().getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER));
+                .thenComparing(c -> c.media().getTitle(), String.CASE_INSENSITIVE_ORDER));
 
-        return candidates.stream()
-                .map(Candidate::details)
+        // Details (Favoriten-Zähler und -Flags) werden nur für die tatsächlich gelieferten Treffer geladen.
+        List<Media> top = candidates.stream()
+                .map(Candidate::media)
                 .limit(10)
                 .toList();
+        return buildDetailsList(top, summaries, userId);
     }
 
-    private Comparator<MediaDetails> comparatorFor(MediaSearchCriteria criteria) {
-        Comparator<MediaDetails> comparator;
-        if (criteria.getSortField() == MediaSearchCriteria.SortField.YEAR) {
-            comparator = Comparator.comparingInt(details ->
-                    details.getMedia().getReleaseYear() != null ? details.getMedia().getReleaseYear() : Integer.MIN_VALUE);
-        } else if (criteria.getSortField() == MediaSearchCriteria.SortField.SCORE) {
-            comparator = Comparator.comparingDouble(MediaDetails::getAverageRating);
-        } else {
-            comparator = Comparator.comparing(details -> details.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER);
+    // Trefferliste samt Kennzahlen, wenn möglich aus dem Such-Cache. Mit pageSize liest der Filter einen
+    // Datensatz mehr, der nur anzeigt, ob eine weitere Seite existiert; null liefert alle Treffer des Filters.
+    private SearchResultCache.CachedPage search(MediaFilter filter, Integer pageSize) {
+        SearchResultCache.CachedPage cached = searchCache != null ? searchCache.get(filter, pageSize) : null;
+        if (cached != null) {
+            return cached;
         }
-
-        if (criteria.getSortDirection() == MediaSearchCriteria.SortDirection.DESC) {
-            comparator = comparator.reversed();
+        long version = searchCache != null ? searchCache.currentVersion() : 0;
+        List<Media> matches = mediaRepository.search(filter);
+        boolean hasMore = pageSize != null && matches.size() > pageSize;
+        if (hasMore) {
+            matches = matches.subList(0, pageSize);
         }
-
-        return comparator.thenComparing(details -> details.getMedia().getTitle(), String.CASE_INSENSITIVE_ORDER);
+        cached = new SearchResultCache.CachedPage(matches, summariesFor(matches), hasMore);
+        if (searchCache != null) {
+            searchCache.put(filter, pageSize, version, cached);
+        }
+        return cached;
     }
 
-    private boolean matchesBasicFilters(Media media, MediaSearchCriteria criteria) {
-        if (criteria.getTitleQuery() != null) {
-            String query = criteria.getTitleQuery().toLowerCase();
-            if (media.getTitle() == null || !media.getTitle().toLowerCase().contains(query)) {
-                return false;
-            }
+    private boolean favoritesChanged(int userId, boolean written) {
+        if (written && recommendationCache != null) {
+            recommendationCache.invalidate(userId);
         }
+        return written;
+    }
 
-        if (criteria.getMediaType() != null) {
-            if (media.getMediaType() == null
-                    || !normalize(media.getMediaType()).equals(normalize(criteria.getMediaType()))) {
-                return false;
+    // Fehler in einem Listener dürfen das bereits ausgeführte Löschen nicht scheitern lassen.
+    private void notifyListeners(Consumer<RatingEventListener> event) {
+        for (RatingEventListener listener : ratingListeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                System.err.println("Error notifying rating listener: " + e.getMessage());
             }
         }
+    }
 
-        if (criteria.getGenre() != null) {
-            String wanted = normalize(criteria.getGenre());
-            boolean found = media.getGenres().stream()
-                    .map(this::normalize)
-                    .anyMatch(wanted::equals);
-            if (!found) {
-                return false;
-            }
+    private boolean catalogChanged(boolean written) {
+        if (written && searchCache != null) {
+            searchCache.catalogChanged();
         }
+        return written;
+    }
 
-        if (criteria.getReleaseYear() != null) {
-            if (!Objects.equals(media.getReleaseYear(), criteria.getReleaseYear())) {
-                return false;
-            }
+    private int pageSizeFor(MediaSearchCriteria criteria) {
+        Integer limit = criteria.getLimit();
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
         }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 
+    private MediaFilter toFilter(MediaSearchCriteria criteria) {
+        MediaFilter filter = new MediaFilter();
+        if (criteria.getTitleQuery() != null) {
+            filter.setTitleQuery(criteria.getTitleQuery().toLowerCase());
+        }
+        if (criteria.getMediaType() != null) {
+            filter.setMediaType(normalize(criteria.getMediaType()));
+        }
+        if (criteria.getGenre() != null) {
+            filter.setGenre(normalize(criteria.getGenre()));
+        }
+        filter.setReleaseYear(criteria.getReleaseYear());
         if (criteria.getAgeRestriction() != null) {
-            if (media.getAgeRestriction() == null
-                    || !normalize(media.getAgeRestriction()).equals(normalize(criteria.getAgeRestriction()))) {
-                return false;
+            filter.setAgeRestriction(normalize(criteria.getAgeRestriction()));
+        }
+        filter.setMinimumRating(criteria.getMinimumRating());
+        filter.setSortField(switch (criteria.getSortField()) {
+            case YEAR -> MediaFilter.SortField.YEAR;
+            case SCORE -> MediaFilter.SortField.SCORE;
+            case TITLE -> MediaFilter.SortField.TITLE;
+        });
+        filter.setDescending(criteria.getSortDirection() == MediaSearchCriteria.SortDirection.DESC);
+        if (criteria.getCursor() != null) {
+            MediaCursor cursor = MediaCursor.decode(criteria.getCursor());
+            if (!cursor.matches(criteria)) {
+                throw new InvalidCursorException("Cursor does not match the requested sort order");
             }
+            filter.setAfter(cursor.getId(), cursor.getTitle(), cursor.getReleaseYear(), cursor.getScore());
+        } else {
+            filter.setOffset(criteria.getOffset());
         }
-
-        return true;
-    }
-
-    private boolean passesRatingThreshold(RatingSummary summary, Double minimumRating) {
-        if (minimumRating == null) {
-            return true;
-        }
-        return summary != null && summary.getAverageScore() >= minimumRating;
+        return filter;
     }
 
     private Map<Integer, RatingSummary> summariesFor(List<Media> mediaList) {
@@ -318,29 +424,55 @@ public class DefaultMediaService implements MediaService {
         List<Integer> ids = mediaList.stream()
                 .map(Media::getId)
                 .collect(Collectors.toList());
+        if (summaryStore != null) {
+            return summaryStore.summariesFor(ids);
+        }
         return ratingRepository.summarizeByMediaIds(ids).stream()
                 .collect(Collectors.toMap(RatingSummary::getMediaId, summary -> summary));
     }
 
-    private MediaDetails buildDetails(Media media,
-                                      RatingSummary summary,
-                                      int userId,
-                                      boolean includeRatings) {
-        return buildDetails(media, summary, userId, includeRatings, includeRatings ? null : List.of());
+    // Baut Details für eine ganze Trefferliste mit einer festen Anzahl an Favoriten-Abfragen,
+    // unabhängig davon, wie viele Medien die Liste enthält.
+    private List<MediaDetails> buildDetailsList(List<Media> mediaList,
+                                                Map<Integer, RatingSummary> summaries,
+                                                int userId) {
+        if (mediaList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = mediaList.stream()
+                .map(Media::getId)
+                .toList();
+        Map<Integer, Integer> favoriteCounts = favoriteRepository.countFavoritesForMediaIds(ids);
+        Set<Integer> userFavorites = userId > 0
+                ? favoriteRepository.findFavoriteMediaIds(userId, ids)
+                : Set.of();
+
+        List<MediaDetails> details = new ArrayList<>(mediaList.size());
+        for (Media media : mediaList) {
+            RatingSummary summary = summaries.get(media.getId());
+            double average = summary != null ? summary.getAverageScore() : 0.0;
+            int ratingCount = summary != null ? summary.getRatingCount() : 0;
+            details.add(MediaDetails.of(
+                    media,
+                    average,
+                    ratingCount,
+                    favoriteCounts.getOrDefault(media.getId(), 0),
+                    userFavorites.contains(media.getId()),
+                    List.of()
+            ));
+        }
+        return details;
     }
 
+    // Detailansicht eines einzelnen Eintrags inklusive der übergebenen Ratings.
     private MediaDetails buildDetails(Media media,
                                       RatingSummary summary,
                                       int userId,
-                                      boolean includeRatings,
-                                      List<Rating> ratingsOverride) {
+                                      List<Rating> ratings) {
         double average = summary != null ? summary.getAverageScore() : 0.0;
         int ratingCount = summary != null ? summary.getRatingCount() : 0;
         int favoritesCount = favoriteRepository.countFavoritesForMedia(media.getId());
         boolean favorite = userId > 0 && favoriteRepository.isFavorite(userId, media.getId());
-        List<Rating> ratings = includeRatings
-                ? (ratingsOverride != null ? ratingsOverride : ratingRepository.findByMediaId(media.getId()))
-                : List.of();
         return MediaDetails.of(media, average, ratingCount, favoritesCount, favorite, ratings);
     }
 
@@ -395,6 +527,6 @@ public class DefaultMediaService implements MediaService {
         return true;
     }
 
-    private record Candidate(MediaDetails details, int score, double average, int ratingCount) {
+    private record Candidate(Media media, int score, double average, int ratingCount) {
     }
 }
@@ -2,16 +2,17 @@ package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.business.dto.UserProfile;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
-import org.SalimMRP.persistence.models.UserRatingCount;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -25,15 +26,27 @@ public class DefaultProfileService implements ProfileService {
     private final RatingRepository ratingRepository;
     private final FavoriteRepository favoriteRepository;
     private final MediaService mediaService;
+    private final RatingLeaderboard leaderboard;
 
     public DefaultProfileService(UserRepository userRepository,
                                  RatingRepository ratingRepository,
                                  FavoriteRepository favoriteRepository,
                                  MediaService mediaService) {
+        this(userRepository, ratingRepository, favoriteRepository, mediaService,
+                new RatingLeaderboard(ratingRepository, userRepository));
+    }
+
+    // Die Bestenliste muss beim RatingService als Listener registriert sein, damit sie aktuell bleibt.
+    public DefaultProfileService(UserRepository userRepository,
+                                 RatingRepository ratingRepository,
+                                 FavoriteRepository favoriteRepository,
+                                 MediaService mediaService,
+                                 RatingLeaderboard leaderboard) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.favoriteRepository = Objects.requireNonNull(favoriteRepository, "favoriteRepository must not be null");
         this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
+        this.leaderboard = Objects.requireNonNull(leaderboard, "leaderboard must not be null");
     }
 
     @Override
@@ -64,6 +77,14 @@ public class DefaultProfileService implements ProfileService {
         );
     }
 
+    @Override
+    public DataVersion profileVersion(int userId) {
+        if (userId <= 0) {
+            return null;
+        }
+        return userRepository.findProfileVersion(userId);
+    }
+
     @Override
     public List<Rating> ratingHistory(int userId) {
         if (userId <= 0) {
@@ -72,6 +93,15 @@ public class DefaultProfileService implements ProfileService {
         return ratingRepository.findByUserId(userId);
     }
 
+    @Override
+    public RatingPage ratingHistory(int userId, RatingListRequest request) {
+        Objects.requireNonNull(request, "request must not be null");
+        if (userId <= 0) {
+            return new RatingPage(List.of(), null);
+        }
+        return RatingPaging.load(request, userId, page -> ratingRepository.findByUserId(userId, page));
+    }
+
     @Override
     public List<MediaDetails> favoriteMedia(int userId) {
         return mediaService.listFavorites(userId);
@@ -80,17 +110,7 @@ public class DefaultProfileService implements ProfileService {
     @Override
     public List<LeaderboardEntry> leaderboard(int limit) {
         int effectiveLimit = limit > 0 ? limit : 10;
-        List<UserRatingCount> ratingCounts = ratingRepository.findRatingCountsPerUser(effectiveLimit);
-        List<LeaderboardEntry> result = new ArrayList<>();
-
-        for (UserRatingCount count : ratingCounts) {
-            User user = userRepository.findById(count.getUserId());
-            if (user == null) {
-                continue;
-            }
-            result.add(new LeaderboardEntry(user.getUsername(), count.getRatingCount()));
-        }
-        return result;
+        return leaderboard.top(effectiveLimit);
     }
 
     private String determineFavoriteGenre(List<Rating> ratings) {
@@ -1,5 +1,7 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.persistence.MediaRepository;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.models.Media;
@@ -8,16 +10,25 @@ import org.SalimMRP.persistence.models.Rating;
 import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 // Enthält die Geschäftslogik für Ratings: Erstellung, Bearbeitung, Moderation und Likes.
 public class DefaultRatingService implements RatingService {
 
     private final RatingRepository ratingRepository;
     private final MediaRepository mediaRepository;
+    private final List<RatingEventListener> listeners;
 
     public DefaultRatingService(RatingRepository ratingRepository, MediaRepository mediaRepository) {
+        this(ratingRepository, mediaRepository, List.of());
+    }
+
+    public DefaultRatingService(RatingRepository ratingRepository,
+                                MediaRepository mediaRepository,
+                                List<RatingEventListener> listeners) {
         this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
         this.mediaRepository = Objects.requireNonNull(mediaRepository, "mediaRepository must not be null");
+        this.listeners = List.copyOf(Objects.requireNonNull(listeners, "listeners must not be null"));
     }
 
     @Override
@@ -40,7 +51,11 @@ public class DefaultRatingService implements RatingService {
         rating.setCommentConfirmed(false);
         rating.setCreatedAt(Instant.now());
         rating.setLikedByUserIds(null);
-        return ratingRepository.save(rating);
+        Rating saved = ratingRepository.save(rating);
+        if (saved != null) {
+            notifyListeners(listener -> listener.ratingCreated(saved));
+        }
+        return saved;
     }
 
     @Override
@@ -51,6 +66,15 @@ public class DefaultRatingService implements RatingService {
         return ratingRepository.findByMediaId(mediaId);
     }
 
+    @Override
+    public RatingPage getRatingsForMedia(int mediaId, RatingListRequest request, int requestingUserId) {
+        Objects.requireNonNull(request, "request must not be null");
+        if (mediaId <= 0) {
+            return new RatingPage(List.of(), null);
+        }
+        return RatingPaging.load(request, requestingUserId, page -> ratingRepository.findByMediaId(mediaId, page));
+    }
+
     @Override
     public Rating getRatingById(int id) {
         if (id <= 0) {
@@ -91,13 +115,18 @@ public class DefaultRatingService implements RatingService {
         }
 
         boolean commentChanged = !Objects.equals(existing.getComment(), rating.getComment());
+        int previousStarValue = existing.getStarValue();
         existing.setStarValue(rating.getStarValue());
         existing.setComment(rating.getComment());
         if (commentChanged) {
             existing.setCommentConfirmed(false);
         }
 
-        return ratingRepository.update(existing);
+        boolean updated = ratingRepository.update(existing);
+        if (updated) {
+            notifyListeners(listener -> listener.ratingUpdated(existing, previousStarValue));
+        }
+        return updated;
     }
 
     @Override
@@ -110,7 +139,11 @@ public class DefaultRatingService implements RatingService {
         if (existing == null || existing.getUserId() != userId) {
             return false;
         }
-        return ratingRepository.delete(ratingId);
+        boolean deleted = ratingRepository.delete(ratingId);
+        if (deleted) {
+            notifyListeners(listener -> listener.ratingDeleted(existing));
+        }
+        return deleted;
     }
 
     @Override
@@ -163,6 +196,17 @@ public class DefaultRatingService implements RatingService {
         return ratingRepository.removeLike(ratingId, userId);
     }
 
+    // Fehler in einem Listener dürfen den bereits gespeicherten Schreibvorgang nicht scheitern lassen.
+    private void notifyListeners(Consumer<RatingEventListener> event) {
+        for (RatingEventListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                System.err.println("Error notifying rating listener: " + e.getMessage());
+            }
+        }
+    }
+
     private boolean isCreatable(Rating rating) {
         return rating != null
                 && rating.getMediaId() > 0
@@ -1,26 +1,58 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.auth.PasswordHasher;
+import org.SalimMRP.business.auth.PasswordHashingBusyException;
 import org.SalimMRP.business.auth.TokenService;
 import org.SalimMRP.persistence.UserRepository;
 import org.SalimMRP.persistence.models.User;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 // Enthält die Geschäftslogik für Registrierung, Login und Tokenprüfung und nutzt nur die übergebenen Abstraktionen.
+// Aufgelöste Benutzer werden pro Token für authCacheTtl zwischengespeichert, damit die Authentifizierung
+// im Normalfall ohne Datenbankzugriff auskommt.
 public class DefaultUserService implements UserService {
 
+    public static final Duration DEFAULT_AUTH_CACHE_TTL = Duration.ofMinutes(5);
+
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
     private final UserRepository userRepository;
     private final PasswordHasher passwordHasher;
     private final TokenService tokenService;
+    private final long authCacheTtlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, CachedUser> authCache = new ConcurrentHashMap<>();
 
     // Abhängigkeiten werden injiziert, damit Tests und Austausch der Implementierung leicht möglich sind.
     public DefaultUserService(UserRepository userRepository,
                               PasswordHasher passwordHasher,
                               TokenService tokenService) {
+        this(userRepository, passwordHasher, tokenService, DEFAULT_AUTH_CACHE_TTL);
+    }
+
+    // Eine TTL von 0 schaltet den Cache ab.
+    public DefaultUserService(UserRepository userRepository,
+                              PasswordHasher passwordHasher,
+                              TokenService tokenService,
+                              Duration authCacheTtl) {
+        this(userRepository, passwordHasher, tokenService, authCacheTtl, System::nanoTime);
+    }
+
+    DefaultUserService(UserRepository userRepository,
+                       PasswordHasher passwordHasher,
+                       TokenService tokenService,
+                       Duration authCacheTtl,
+                       LongSupplier nanoClock) {
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
         this.passwordHasher = Objects.requireNonNull(passwordHasher, "passwordHasher must not be null");
         this.tokenService = Objects.requireNonNull(tokenService, "tokenService must not be null");
+        this.authCacheTtlNanos = Objects.requireNonNull(authCacheTtl, "authCacheTtl must not be null").toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
     }
 
     @Override
@@ -57,8 +89,9 @@ public class DefaultUserService implements UserService {
         if (!passwordHasher.matches(password, user.getPassword())) {
             return null;
         }
+        rehashIfOutdated(user, password);
 
-        return tokenService.issueToken(username);
+        return tokenService.issueToken(user.getId(), username);
     }
 
     @Override
@@ -78,6 +111,44 @@ public class DefaultUserService implements UserService {
         return userRepository.findByUsername(username);
     }
 
+    // Ein Cache-Treffer kostet nur die Tokenprüfung im Speicher; abgelaufene Einträge werden neu geladen.
+    @Override
+    public User authenticate(String token) {
+        if (token == null || token.isBlank() || !tokenService.isValid(token)) {
+            return null;
+        }
+        long now = nanoClock.getAsLong();
+        CachedUser cached = authCache.get(token);
+        if (cached != null && now - cached.loadedAt < authCacheTtlNanos) {
+            return cached.user;
+        }
+
+        User user = getUserByToken(token);
+        if (user == null) {
+            authCache.remove(token);
+            return null;
+        }
+        if (authCacheTtlNanos > 0) {
+            if (authCache.size() >= MAX_CACHED_TOKENS) {
+                authCache.values().removeIf(entry -> now - entry.loadedAt >= authCacheTtlNanos);
+                if (authCache.size() >= MAX_CACHED_TOKENS) {
+                    authCache.clear();
+                }
+            }
+            authCache.put(token, new CachedUser(user, now));
+        }
+        return user;
+    }
+
+    @Override
+    public void logout(String token) {
+        if (token == null) {
+            return;
+        }
+        tokenService.invalidate(token);
+        authCache.remove(token);
+    }
+
     @Override
     public User findByUsername(String username) {
         if (username == null || username.isBlank()) {
@@ -93,4 +164,23 @@ public class DefaultUserService implements UserService {
         }
         return userRepository.findById(id);
     }
+
+    // Nur beim Login liegt das Klartext-Passwort vor: Alte Hashes werden dann still auf das aktuelle Verfahren
+    // gehoben. Scheitert das (z. B. weil der Hashing-Pool ausgelastet ist), klappt der Login trotzdem.
+    private void rehashIfOutdated(User user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String newHash = passwordHasher.hash(password);
+            if (userRepository.updatePassword(user.getId(), newHash)) {
+                user.setPassword(newHash);
+            }
+        } catch (PasswordHashingBusyException e) {
+            System.err.println("Error upgrading password hash: " + e.getMessage());
+        }
+    }
+
+    private record CachedUser(User user, long loadedAt) {
+    }
 }
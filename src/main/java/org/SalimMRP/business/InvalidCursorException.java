@@ -0,0 +1,13 @@
+package org.SalimMRP.business;
+
+// Wird geworfen, wenn ein Blätter-Cursor nicht gelesen werden kann oder nicht zur Anfrage passt (400).
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,101 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.MediaSearchCriteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+// Opaker Keyset-Cursor für die Mediensuche: enthält den Sortierschlüssel des letzten gelieferten Eintrags.
+// Für Clients ist der Wert nur ein Base64-String, der unverändert zurückgeschickt wird.
+final class MediaCursor {
+
+    private static final String VERSION = "m1";
+    private static final String SEPARATOR = "\u001F";
+
+    private final MediaSearchCriteria.SortField sortField;
+    private final MediaSearchCriteria.SortDirection sortDirection;
+    private final int id;
+    private final String title;
+    private final Integer releaseYear;
+    private final double score;
+
+    MediaCursor(MediaSearchCriteria.SortField sortField,
+                MediaSearchCriteria.SortDirection sortDirection,
+                int id,
+                String title,
+                Integer releaseYear,
+                double score) {
+        this.sortField = Objects.requireNonNull(sortField, "sortField must not be null");
+        this.sortDirection = Objects.requireNonNull(sortDirection, "sortDirection must not be null");
+        this.id = id;
+        this.title = title == null ? "" : title;
+        this.releaseYear = releaseYear;
+        this.score = score;
+    }
+
+    MediaSearchCriteria.SortField getSortField() {
+        return sortField;
+    }
+
+    MediaSearchCriteria.SortDirection getSortDirection() {
+        return sortDirection;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    Integer getReleaseYear() {
+        return releaseYear;
+    }
+
+    double getScore() {
+        return score;
+    }
+
+    // Ein Cursor gilt nur für die Sortierung, mit der er erzeugt wurde.
+    boolean matches(MediaSearchCriteria criteria) {
+        return sortField == criteria.getSortField() && sortDirection == criteria.getSortDirection();
+    }
+
+    String encode() {
+        // Der Titel steht am Ende, damit Trennzeichen im Titel das Parsen nicht stören.
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                sortField.name(),
+                sortDirection.name(),
+                Integer.toString(id),
+                releaseYear == null ? "" : releaseYear.toString(),
+                Double.toString(score),
+                title);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MediaCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new InvalidCursorException("cursor must not be blank");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 7);
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor");
+            }
+            return new MediaCursor(
+                    MediaSearchCriteria.SortField.valueOf(parts[1]),
+                    MediaSearchCriteria.SortDirection.valueOf(parts[2]),
+                    Integer.parseInt(parts[3]),
+                    parts[6],
+                    parts[4].isEmpty() ? null : Integer.valueOf(parts[4]),
+                    Double.parseDouble(parts[5])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
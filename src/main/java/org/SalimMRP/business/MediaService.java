@@ -1,7 +1,9 @@
 package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.MediaPage;
 import org.SalimMRP.business.dto.MediaSearchCriteria;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
 
 import java.util.List;
@@ -19,10 +21,18 @@ public interface MediaService {
 
     boolean deleteMedia(int id);
 
+    // Alle Treffer, bzw. höchstens criteria.getLimit(); zum Blättern für Clients dient searchMediaPage.
     List<MediaDetails> searchMedia(MediaSearchCriteria criteria, int requestingUserId);
 
+    // Eine Seite der Treffer (Standard 50, höchstens 200) samt Cursor für die nächste Seite;
+    // ungültige Cursor führen zu InvalidCursorException.
+    MediaPage searchMediaPage(MediaSearchCriteria criteria, int requestingUserId);
+
     MediaDetails getDetailedMedia(int id, int requestingUserId);
 
+    // Versionsstände für bedingte Anfragen: günstig zu lesen, ohne die Details aufzubauen. null = unbekannt.
+    DataVersion getMediaVersion(int id);
+
     boolean addFavorite(int mediaId, int userId);
 
     boolean removeFavorite(int mediaId, int userId);
@@ -2,7 +2,10 @@ package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.business.dto.UserProfile;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Rating;
 
 import java.util.List;
@@ -12,8 +15,14 @@ public interface ProfileService {
 
     UserProfile buildProfile(int userId);
 
+    // Ändert sich, sobald sich ein Wert in buildProfile ändern kann; null = unbekannt.
+    DataVersion profileVersion(int userId);
+
     List<Rating> ratingHistory(int userId);
 
+    // Seitenweise Bewertungshistorie, neueste zuerst; ungültige Cursor führen zu InvalidCursorException.
+    RatingPage ratingHistory(int userId, RatingListRequest request);
+
     List<MediaDetails> favoriteMedia(int userId);
 
     List<LeaderboardEntry> leaderboard(int limit);
@@ -0,0 +1,56 @@
+package org.SalimMRP.business;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+// Opaker Keyset-Cursor für Rating-Listen: Zeitpunkt und ID des zuletzt gelieferten Ratings.
+final class RatingCursor {
+
+    private static final String VERSION = "r1";
+    private static final String SEPARATOR = ":";
+
+    private final Instant createdAt;
+    private final int id;
+
+    RatingCursor(Instant createdAt, int id) {
+        this.createdAt = Objects.requireNonNull(createdAt, "createdAt must not be null");
+        this.id = id;
+    }
+
+    Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String encode() {
+        String raw = String.join(SEPARATOR,
+                VERSION,
+                Long.toString(createdAt.getEpochSecond()),
+                Integer.toString(createdAt.getNano()),
+                Integer.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static RatingCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new InvalidCursorException("cursor must not be blank");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+            return new RatingCursor(createdAt, Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.List;
+
+// Erweiterungspunkt für Komponenten, die auf erfolgreich gespeicherte Rating-Änderungen reagieren.
+// Aufrufe erfolgen nach dem Schreibvorgang im Thread der Anfrage und sollten daher kurz sein.
+public interface RatingEventListener {
+
+    default void ratingCreated(Rating rating) {
+    }
+
+    default void ratingUpdated(Rating rating, int previousStarValue) {
+    }
+
+    default void ratingDeleted(Rating rating) {
+    }
+
+    // Beim Löschen eines Mediums entfernt die Datenbank dessen Ratings per Kaskade; ohne eigene Behandlung
+    // kommt jedes davon einzeln als ratingDeleted an.
+    default void mediaDeleted(int mediaId, List<Rating> removedRatings) {
+        removedRatings.forEach(this::ratingDeleted);
+    }
+}
@@ -0,0 +1,116 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.LeaderboardEntry;
+import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.User;
+import org.SalimMRP.persistence.models.UserRatingCount;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+// Hält die Bestenliste sortiert im Speicher. Sie wird einmalig mit einer Abfrage befüllt und danach
+// über Rating-Ereignisse fortgeschrieben; Abfragen der Top-N greifen nicht auf die Datenbank zu.
+public class RatingLeaderboard implements RatingEventListener {
+
+    // Gleiche Reihenfolge wie die Datenbankabfrage: Anzahl absteigend, dann Benutzer-ID aufsteigend.
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong(Entry::ratingCount).reversed()
+            .thenComparingInt(Entry::userId);
+
+    private final RatingRepository ratingRepository;
+    private final UserRepository userRepository;
+    private final TreeSet<Entry> ranking = new TreeSet<>(RANKING);
+    private final Map<Integer, Entry> entriesByUser = new HashMap<>();
+    private boolean loaded;
+
+    public RatingLeaderboard(RatingRepository ratingRepository, UserRepository userRepository) {
+        this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
+        this.userRepository = Objects.requireNonNull(userRepository, "userRepository must not be null");
+    }
+
+    // Lädt die Rating-Anzahlen aller Benutzer; wird sonst beim ersten Zugriff nachgeholt.
+    public synchronized void load() {
+        ranking.clear();
+        entriesByUser.clear();
+        for (UserRatingCount count : ratingRepository.findRatingCountsPerUser(0)) {
+            String username = count.getUsername() != null ? count.getUsername() : lookupUsername(count.getUserId());
+            if (username != null && count.getRatingCount() > 0) {
+                put(new Entry(count.getUserId(), username, count.getRatingCount()));
+            }
+        }
+        loaded = true;
+    }
+
+    public synchronized List<LeaderboardEntry> top(int limit) {
+        ensureLoaded();
+        List<LeaderboardEntry> result = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (Entry entry : ranking) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new LeaderboardEntry(entry.username(), entry.ratingCount()));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void ratingCreated(Rating rating) {
+        if (!loaded) {
+            return;
+        }
+        Entry current = entriesByUser.get(rating.getUserId());
+        if (current == null) {
+            String username = lookupUsername(rating.getUserId());
+            if (username != null) {
+                put(new Entry(rating.getUserId(), username, 1));
+            }
+            return;
+        }
+        replace(current, current.ratingCount() + 1);
+    }
+
+    @Override
+    public synchronized void ratingDeleted(Rating rating) {
+        if (!loaded) {
+            return;
+        }
+        Entry current = entriesByUser.get(rating.getUserId());
+        if (current != null) {
+            replace(current, current.ratingCount() - 1);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private void replace(Entry current, long newCount) {
+        ranking.remove(current);
+        entriesByUser.remove(current.userId());
+        if (newCount > 0) {
+            put(new Entry(current.userId(), current.username(), newCount));
+        }
+    }
+
+    private void put(Entry entry) {
+        ranking.add(entry);
+        entriesByUser.put(entry.userId(), entry);
+    }
+
+    private String lookupUsername(int userId) {
+        User user = userRepository.findById(userId);
+        return user != null ? user.getUsername() : null;
+    }
+
+    private record Entry(int userId, String username, long ratingCount) {
+    }
+}
@@ -0,0 +1,43 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
+import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+// Gemeinsame Blätterlogik für Rating-Listen von Medien und Benutzerprofilen.
+final class RatingPaging {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+
+    private RatingPaging() {
+    }
+
+    // Lädt eine Seite plus einen zusätzlichen Datensatz, um das Vorhandensein einer Folgeseite zu erkennen.
+    static RatingPage load(RatingListRequest request, int viewerUserId, Function<RatingPageRequest, List<Rating>> loader) {
+        int pageSize = request.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.min(request.getLimit(), MAX_PAGE_SIZE);
+        RatingCursor cursor = request.getCursor() == null ? null : RatingCursor.decode(request.getCursor());
+
+        RatingPageRequest pageRequest = new RatingPageRequest(
+                pageSize + 1,
+                cursor != null ? cursor.getCreatedAt() : null,
+                cursor != null ? cursor.getId() : null,
+                request.isIncludeLikedBy(),
+                viewerUserId
+        );
+        List<Rating> ratings = loader.apply(pageRequest);
+
+        if (ratings.size() <= pageSize) {
+            return new RatingPage(ratings, null);
+        }
+        List<Rating> items = ratings.subList(0, pageSize);
+        Rating last = items.get(items.size() - 1);
+        Instant createdAt = last.getCreatedAt() != null ? last.getCreatedAt() : Instant.EPOCH;
+        return new RatingPage(items, new RatingCursor(createdAt, last.getId()).encode());
+    }
+}
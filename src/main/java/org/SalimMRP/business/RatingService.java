@@ -1,5 +1,7 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.persistence.models.Rating;
 
 import java.util.List;
@@ -11,6 +13,9 @@ public interface RatingService {
 
     List<Rating> getRatingsForMedia(int mediaId);
 
+    // Seitenweise Ratings eines Mediums, neueste zuerst; ungültige Cursor führen zu InvalidCursorException.
+    RatingPage getRatingsForMedia(int mediaId, RatingListRequest request, int requestingUserId);
+
     Rating getRatingById(int id);
 
     Rating getUserRatingForMedia(int mediaId, int userId);
@@ -0,0 +1,115 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingSummary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Hält pro Medium das Sterne-Histogramm im Speicher. Es wird einmalig aus media_stats befüllt und danach
+// über Rating-Ereignisse fortgeschrieben; Anzahl und Durchschnitt werden beim Lesen aus dem Histogramm berechnet,
+// sodass Suche, Details, Favoriten und Empfehlungen ohne Aggregat-Abfrage auskommen.
+// Rating-Änderungen anderer Knoten sieht der Speicher erst nach dem nächsten load().
+public class RatingSummaryStore implements RatingEventListener {
+
+    private final RatingRepository ratingRepository;
+    private final Map<Integer, AtomicIntegerArray> starCountsByMedia = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public RatingSummaryStore(RatingRepository ratingRepository) {
+        this.ratingRepository = Objects.requireNonNull(ratingRepository, "ratingRepository must not be null");
+    }
+
+    // Lädt die Kennzahlen aller bewerteten Medien; wird sonst beim ersten Zugriff nachgeholt.
+    public synchronized void load() {
+        Map<Integer, AtomicIntegerArray> fresh = new HashMap<>();
+        for (RatingSummary summary : ratingRepository.summarizeAll()) {
+            fresh.put(summary.getMediaId(), new AtomicIntegerArray(summary.getStarCounts()));
+        }
+        starCountsByMedia.clear();
+        starCountsByMedia.putAll(fresh);
+        loaded = true;
+    }
+
+    // Liefert nur Einträge für Medien mit mindestens einem Rating, wie summarizeByMediaIds.
+    public Map<Integer, RatingSummary> summariesFor(List<Integer> mediaIds) {
+        ensureLoaded();
+        Map<Integer, RatingSummary> result = new HashMap<>();
+        for (Integer mediaId : mediaIds) {
+            AtomicIntegerArray starCounts = mediaId == null ? null : starCountsByMedia.get(mediaId);
+            if (starCounts != null) {
+                RatingSummary summary = toSummary(mediaId, starCounts);
+                if (summary != null) {
+                    result.put(mediaId, summary);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Gelöschte Medien verlieren ihre Ratings per Kaskade, ohne dass Rating-Ereignisse ausgelöst werden.
+    public void forget(int mediaId) {
+        starCountsByMedia.remove(mediaId);
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        if (loaded) {
+            add(rating.getMediaId(), rating.getStarValue(), 1);
+        }
+    }
+
+    @Override
+    public void ratingUpdated(Rating rating, int previousStarValue) {
+        if (loaded && previousStarValue != rating.getStarValue()) {
+            add(rating.getMediaId(), previousStarValue, -1);
+            add(rating.getMediaId(), rating.getStarValue(), 1);
+        }
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        if (loaded) {
+            add(rating.getMediaId(), rating.getStarValue(), -1);
+        }
+    }
+
+    @Override
+    public void mediaDeleted(int mediaId, List<Rating> removedRatings) {
+        forget(mediaId);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            load();
+        }
+    }
+
+    private void add(int mediaId, int starValue, int delta) {
+        if (starValue < 1 || starValue > 5) {
+            return;
+        }
+        starCountsByMedia.computeIfAbsent(mediaId, id -> new AtomicIntegerArray(5))
+                .getAndAdd(starValue - 1, delta);
+    }
+
+    private static RatingSummary toSummary(int mediaId, AtomicIntegerArray starCounts) {
+        int[] counts = new int[5];
+        int count = 0;
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(0, starCounts.get(i));
+            count += counts[i];
+            sum += (long) counts[i] * (i + 1);
+        }
+        if (count == 0) {
+            return null;
+        }
+        return new RatingSummary(mediaId, (double) sum / count, count, counts);
+    }
+}
@@ -0,0 +1,223 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.persistence.CacheStatistics;
+import org.SalimMRP.persistence.models.Rating;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+// Hält die Empfehlungen pro Benutzer im Speicher. Nur der erste Abruf rechnet im Thread der Anfrage;
+// danach wird immer sofort die gespeicherte Liste geliefert. Ist sie abgelaufen oder hat der Benutzer seither
+// bewertet oder Favoriten geändert, wird sie im Hintergrund neu berechnet (stale-while-revalidate).
+public class RecommendationCache implements RatingEventListener, AutoCloseable {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private static final int REFRESH_QUEUE_CAPACITY = 256;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final ThreadPoolExecutor refresher;
+    private final Map<Integer, Entry> entries;
+    private final Set<Integer> refreshing = new HashSet<>();
+    // Generationen für Benutzer, deren erste Liste gerade berechnet wird und die daher noch keinen Eintrag haben.
+    private final Map<Integer, PendingLoad> pendingLoads = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long evictions;
+
+    public RecommendationCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    RecommendationCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+        // Ein Hintergrund-Thread genügt; ist die Warteschlange voll, wird die Aktualisierung beim nächsten Abruf
+        // erneut angestoßen.
+        this.refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                Thread.ofPlatform().name("mrp-recommendations").daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > RecommendationCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<MediaDetails> get(int userId, IntFunction<List<MediaDetails>> loader) {
+        Objects.requireNonNull(loader, "loader must not be null");
+        Entry entry;
+        boolean refresh = false;
+        long generation = 0;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry == null) {
+                PendingLoad pending = pendingLoads.computeIfAbsent(userId, id -> new PendingLoad());
+                pending.loaders++;
+                generation = pending.generation;
+            } else if (entry.stale || nanoClock.getAsLong() - entry.computedAt >= ttlNanos) {
+                refresh = refreshing.add(userId);
+                generation = entry.generation;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            try {
+                List<MediaDetails> computed = List.copyOf(loader.apply(userId));
+                store(userId, computed, generation);
+                return computed;
+            } finally {
+                finishLoad(userId);
+            }
+        }
+        hits.incrementAndGet();
+        if (refresh) {
+            scheduleRefresh(userId, generation, loader);
+        }
+        return entry.recommendations;
+    }
+
+    // Eigene Ratings und Favoriten verändern Profil und Ausschlussliste: Liste beim nächsten Abruf erneuern.
+    public void invalidate(int userId) {
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                entry.invalidate();
+            }
+            PendingLoad pending = pendingLoads.get(userId);
+            if (pending != null) {
+                pending.generation++;
+            }
+        }
+    }
+
+    // Gelöschte Medien können in jeder Liste stehen: alle Listen beim nächsten Abruf erneuern.
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.values().forEach(Entry::invalidate);
+            pendingLoads.values().forEach(pending -> pending.generation++);
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        synchronized (entries) {
+            return new CacheStatistics(entries.size(), maxEntries, hits.get(), misses.get(), evictions);
+        }
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        invalidate(rating.getUserId());
+    }
+
+    @Override
+    public void ratingUpdated(Rating rating, int previousStarValue) {
+        invalidate(rating.getUserId());
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        invalidate(rating.getUserId());
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private void scheduleRefresh(int userId, long generation, IntFunction<List<MediaDetails>> loader) {
+        try {
+            refresher.execute(() -> {
+                try {
+                    store(userId, List.copyOf(loader.apply(userId)), generation);
+                } catch (RuntimeException e) {
+                    System.err.println("Error refreshing recommendations: " + e.getMessage());
+                } finally {
+                    synchronized (entries) {
+                        refreshing.remove(userId);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (entries) {
+                refreshing.remove(userId);
+            }
+        }
+    }
+
+    // Wurde der Benutzer während der Berechnung erneut invalidiert, bleibt der Eintrag als veraltet markiert.
+    private void store(int userId, List<MediaDetails> recommendations, long generation) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry current = entries.get(userId);
+            PendingLoad pending = pendingLoads.get(userId);
+            long currentGeneration = current != null ? current.generation : pending != null ? pending.generation : 0;
+            Entry fresh = new Entry(recommendations, now, currentGeneration);
+            fresh.stale = currentGeneration != generation;
+            entries.put(userId, fresh);
+        }
+    }
+
+    private void finishLoad(int userId) {
+        synchronized (entries) {
+            PendingLoad pending = pendingLoads.get(userId);
+            if (pending != null && --pending.loaders == 0) {
+                pendingLoads.remove(userId);
+            }
+        }
+    }
+
+    private static final class PendingLoad {
+        private long generation;
+        private int loaders;
+    }
+
+    private static final class Entry {
+        private final List<MediaDetails> recommendations;
+        private final long computedAt;
+        private long generation;
+        private boolean stale;
+
+        private Entry(List<MediaDetails> recommendations, long computedAt, long generation) {
+            this.recommendations = recommendations;
+            this.computedAt = computedAt;
+            this.generation = generation;
+        }
+
+        private void invalidate() {
+            stale = true;
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.persistence.CacheStatistics;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
+import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingSummary;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Merkt sich den benutzerunabhängigen Teil einer Suchseite (Treffer, Kennzahlen, nächster Cursor) pro
+// normalisiertem Filter. Jede Änderung an Medien oder Ratings erhöht die Katalogversion; Einträge einer älteren
+// Version gelten als veraltet. Favoriten werden nicht gecacht, sondern pro Anfrage frisch ergänzt.
+// Schreibzugriffe anderer Knoten werden erst nach Ablauf von ttl sichtbar.
+public class SearchResultCache implements RatingEventListener {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(60);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Map<Key, Entry> entries;
+    private long evictions;
+
+    public SearchResultCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    SearchResultCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > SearchResultCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Wird vor dem Laden abgefragt und an put() übergeben: Ändert sich der Katalog währenddessen,
+    // landet das Ergebnis mit der alten Version im Cache und wird nie ausgeliefert.
+    public long currentVersion() {
+        return catalogVersion.get();
+    }
+
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    // Liefert null, wenn nichts Gültiges vorliegt. Die Medien sind Kopien und dürfen verändert werden.
+    // pageSize gehört zum Schlüssel: Derselbe Filter liefert als Seite (mit hasMore) eine andere Liste als ungeteilt.
+    public CachedPage get(MediaFilter filter, Integer pageSize) {
+        Key key = Key.of(filter, pageSize);
+        long now = nanoClock.getAsLong();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && (entry.version != catalogVersion.get() || now - entry.storedAt >= ttlNanos)) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.page.copy();
+    }
+
+    public void put(MediaFilter filter, Integer pageSize, long version, CachedPage page) {
+        Entry entry = new Entry(page.copy(), version, nanoClock.getAsLong());
+        synchronized (entries) {
+            if (version == catalogVersion.get()) {
+                entries.put(Key.of(filter, pageSize), entry);
+            }
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        synchronized (entries) {
+            return new CacheStatistics(entries.size(), maxEntries, hits.get(), misses.get(), evictions);
+        }
+    }
+
+    @Override
+    public void ratingCreated(Rating rating) {
+        catalogChanged();
+    }
+
+    @Override
+    public void ratingUpdated(Rating rating, int previousStarValue) {
+        if (previousStarValue != rating.getStarValue()) {
+            catalogChanged();
+        }
+    }
+
+    @Override
+    public void ratingDeleted(Rating rating) {
+        catalogChanged();
+    }
+
+    @Override
+    public void mediaDeleted(int mediaId, List<Rating> removedRatings) {
+        catalogChanged();
+    }
+
+    // Trefferliste einer Seite samt Kennzahlen; hasMore zeigt an, ob hinter der Seite weitere Treffer folgen.
+    public record CachedPage(List<Media> matches, Map<Integer, RatingSummary> summaries, boolean hasMore) {
+
+        public CachedPage {
+            matches = List.copyOf(matches);
+            summaries = Map.copyOf(summaries);
+        }
+
+        private CachedPage copy() {
+            return new CachedPage(matches.stream().map(Media::copy).toList(), summaries, hasMore);
+        }
+    }
+
+    private record Entry(CachedPage page, long version, long storedAt) {
+    }
+
+    // Aus dem bereits normalisierten Filter gebildet, damit "Sci-Fi" und " sci-fi" denselben Eintrag treffen.
+    private record Key(String titleQuery, String mediaType, String genre, Integer releaseYear,
+                       String ageRestriction, Double minimumRating, MediaFilter.SortField sortField,
+                       boolean descending, Integer limit, int offset, Integer afterId, String afterTitle,
+                       Integer afterReleaseYear, double afterScore, Integer pageSize) {
+
+        private static Key of(MediaFilter filter, Integer pageSize) {
+            return new Key(filter.getTitleQuery(), filter.getMediaType(), filter.getGenre(),
+                    filter.getReleaseYear(), filter.getAgeRestriction(), filter.getMinimumRating(),
+                    filter.getSortField(), filter.isDescending(), filter.getLimit(), filter.getOffset(),
+                    filter.getAfterId(), filter.getAfterTitle(), filter.getAfterReleaseYear(),
+                    filter.getAfterScore(), pageSize);
+        }
+    }
+}
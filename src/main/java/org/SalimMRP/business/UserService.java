@@ -13,6 +13,12 @@ public interface UserService {
 
     User getUserByToken(String token);
 
+    // Prüft das Token und liefert den zugehörigen Benutzer (zwischengespeichert); null bei ungültigem Token.
+    User authenticate(String token);
+
+    // Macht das Token ungültig und entfernt es aus dem Authentifizierungs-Cache.
+    void logout(String token);
+
     User findByUsername(String username);
 
     User findById(int id);
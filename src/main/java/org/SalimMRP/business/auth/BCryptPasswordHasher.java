@@ -0,0 +1,122 @@
+package org.SalimMRP.business.auth;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import at.favre.lib.crypto.bcrypt.LongPasswordStrategies;
+import at.favre.lib.crypto.bcrypt.LongPasswordStrategy;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// BCrypt-Hasher, der die teure Berechnung auf einem eigenen, begrenzten Thread-Pool ausführt.
+// So belegt ein Ansturm von Logins höchstens hashThreads Kerne; ist zusätzlich die Warteschlange voll,
+// wird sofort mit PasswordHashingBusyException abgelehnt, statt die übrigen Anfragen auszubremsen.
+// Alte Hashes (z. B. SHA-256) werden über den Legacy-Hasher weiter erkannt und über needsRehash() gemeldet.
+public class BCryptPasswordHasher implements PasswordHasher, AutoCloseable {
+
+    public static final int DEFAULT_COST = 10;
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private static final BCrypt.Version VERSION = BCrypt.Version.VERSION_2A;
+    // Passwörter über 72 Byte werden vorab mit SHA-512 verdichtet, statt abgeschnitten oder abgelehnt zu werden.
+    private static final LongPasswordStrategy LONG_PASSWORDS = LongPasswordStrategies.hashSha512(VERSION);
+
+    private final int cost;
+    private final PasswordHasher legacyHasher;
+    private final ThreadPoolExecutor executor;
+    private final BCrypt.Hasher hasher = BCrypt.with(VERSION, LONG_PASSWORDS);
+    private final BCrypt.Verifyer verifyer = BCrypt.verifyer(VERSION, LONG_PASSWORDS);
+
+    public BCryptPasswordHasher(int cost, int hashThreads, int queueCapacity, PasswordHasher legacyHasher) {
+        if (cost < BCrypt.MIN_COST || cost > BCrypt.MAX_COST) {
+            throw new IllegalArgumentException("cost must be between " + BCrypt.MIN_COST + " and " + BCrypt.MAX_COST);
+        }
+        if (hashThreads <= 0) {
+            throw new IllegalArgumentException("hashThreads must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+        this.cost = cost;
+        this.legacyHasher = Objects.requireNonNull(legacyHasher, "legacyHasher must not be null");
+        this.executor = new ThreadPoolExecutor(hashThreads, hashThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("mrp-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static int defaultHashThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    @Override
+    public String hash(String plainText) {
+        Objects.requireNonNull(plainText, "plainText must not be null");
+        return run(() -> hasher.hashToString(cost, plainText.toCharArray()));
+    }
+
+    @Override
+    public boolean matches(String plainText, String hash) {
+        if (plainText == null || hash == null) {
+            return false;
+        }
+        if (!isBCrypt(hash)) {
+            return legacyHasher.matches(plainText, hash);
+        }
+        return run(() -> verifyer.verify(plainText.toCharArray(), hash).verified);
+    }
+
+    // Fremde Formate und BCrypt-Hashes mit geringeren Kosten werden beim nächsten Login neu berechnet.
+    @Override
+    public boolean needsRehash(String hash) {
+        if (hash == null || !isBCrypt(hash)) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) < cost;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // Der aufrufende Thread wartet auf das Ergebnis; die CPU-Last bleibt aber auf die Hash-Threads beschränkt.
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException("Password hashing is overloaded, try again later");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // BCrypt-Hashes haben die Form $2a$10$..., mit 60 Zeichen Gesamtlänge.
+    private static boolean isBCrypt(String hash) {
+        return hash.length() == 60 && hash.startsWith("$2") && hash.charAt(3) == '$' && hash.charAt(6) == '$';
+    }
+}
@@ -0,0 +1,156 @@
+package org.SalimMRP.business.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Zustandslose Tokens: Benutzer-ID, Benutzername, Ablaufzeit und eine Zufalls-ID werden mit HMAC-SHA256 signiert.
+// Jeder Knoten mit demselben Schlüssel kann ein Token ohne Nachschlagen prüfen; Neustarts verlieren keine Sitzungen.
+// Ein Logout sperrt das Token nur auf dem Knoten, der ihn bearbeitet (bis zum Ablauf des Tokens).
+public class HmacTokenService implements TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "v1";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public HmacTokenService(byte[] secret, Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    HmacTokenService(byte[] secret, Duration ttl, Clock clock) {
+        Objects.requireNonNull(secret, "secret must not be null");
+        if (secret.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException("secret must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        this.ttl = Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.clock = Objects.requireNonNull(clock, "clock must not be null");
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.prototype = newMac();
+    }
+
+    // Für Knoten ohne konfigurierten Schlüssel: gilt nur bis zum nächsten Neustart.
+    public static byte[] randomSecret() {
+        byte[] secret = new byte[MIN_SECRET_BYTES];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    @Override
+    public String issueToken(String username) {
+        return issueToken(0, username);
+    }
+
+    @Override
+    public String issueToken(int userId, String username) {
+        Objects.requireNonNull(username, "username must not be null");
+        byte[] nonce = new byte[12];
+        random.nextBytes(nonce);
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+
+        // Der Benutzername steht am Ende, damit er beliebige Zeichen enthalten darf.
+        String payload = userId + ":" + expiresAt + ":" + ENCODER.encodeToString(nonce) + ":" + username;
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String body = VERSION + "." + encodedPayload;
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    @Override
+    public boolean isValid(String token) {
+        return parse(token) != null;
+    }
+
+    @Override
+    public String resolveUsername(String token) {
+        Claims claims = parse(token);
+        return claims == null ? null : claims.username;
+    }
+
+    @Override
+    public void invalidate(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return;
+        }
+        long now = clock.instant().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        revoked.put(claims.nonce, claims.expiresAt);
+    }
+
+    // Liefert null für manipulierte, abgelaufene, gesperrte oder unlesbare Tokens.
+    private Claims parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0
+                || !VERSION.equals(token.substring(0, first))) {
+            return null;
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(second + 1));
+            byte[] expected = sign(token.substring(0, second));
+            // Vergleich in konstanter Zeit, damit die Laufzeit nichts über die Signatur verrät.
+            if (!MessageDigest.isEqual(expected, signature)) {
+                return null;
+            }
+            String payload = new String(DECODER.decode(token.substring(first + 1, second)), StandardCharsets.UTF_8);
+            String[] parts = payload.split(":", 4);
+            if (parts.length != 4) {
+                return null;
+            }
+            Claims claims = new Claims(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), parts[2], parts[3]);
+            if (claims.expiresAt <= clock.instant().getEpochSecond() || revoked.containsKey(claims.nonce)) {
+                return null;
+            }
+            return claims;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Mac ist nicht threadsicher; ein Klon des initialisierten Prototyps ist deutlich günstiger als getInstance/init.
+    private byte[] sign(String body) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            mac = newMac();
+        }
+        return mac.doFinal(body.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    private record Claims(int userId, long expiresAt, String nonce, String username) {
+    }
+}
@@ -2,40 +2,187 @@ package org.SalimMRP.business.auth;
 
 import com.github.f4b6a3.uuid.UuidCreator;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 // Einfache Token-Verwaltung: Tokens werden im Speicher abgelegt und lassen sich direkt nachschlagen.
-// Für Lernzwecke ausreichend, für den Produktivbetrieb wäre ein dauerhaftes Backend sinnvoll.
+// Tokens laufen nach einer absoluten Lebensdauer oder nach Inaktivität ab; ein Timing Wheel räumt sie in O(1)
+// pro Token ab, und pro Benutzer gibt es höchstens maxTokensPerUser gleichzeitige Tokens (älteste fliegen raus).
 public class InMemoryTokenService implements TokenService {
 
-    private final Map<String, String> tokens = new ConcurrentHashMap<>();
+    public static final Duration DEFAULT_ABSOLUTE_TTL = Duration.ofHours(12);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_TOKENS_PER_USER = 10;
+
+    private static final long TICK_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int WHEEL_SLOTS = 4096;
+
+    private final Map<String, TokenEntry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Deque<TokenEntry>> tokensByUser = new ConcurrentHashMap<>();
+    private final long absoluteTtlNanos;
+    private final long idleTimeoutNanos;
+    private final int maxTokensPerUser;
+    private final LongSupplier nanoClock;
+    private final TimingWheel<TokenEntry> expirations;
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public InMemoryTokenService() {
+        this(DEFAULT_ABSOLUTE_TTL, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_TOKENS_PER_USER);
+    }
+
+    public InMemoryTokenService(Duration absoluteTtl, Duration idleTimeout, int maxTokensPerUser) {
+        this(absoluteTtl, idleTimeout, maxTokensPerUser, System::nanoTime);
+    }
+
+    InMemoryTokenService(Duration absoluteTtl, Duration idleTimeout, int maxTokensPerUser, LongSupplier nanoClock) {
+        this.absoluteTtlNanos = positive(absoluteTtl, "absoluteTtl");
+        this.idleTimeoutNanos = positive(idleTimeout, "idleTimeout");
+        if (maxTokensPerUser <= 0) {
+            throw new IllegalArgumentException("maxTokensPerUser must be positive");
+        }
+        this.maxTokensPerUser = maxTokensPerUser;
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+        this.expirations = new TimingWheel<>(TICK_NANOS, WHEEL_SLOTS, nanoClock.getAsLong());
+    }
 
     @Override
     public String issueToken(String username) {
         Objects.requireNonNull(username, "username must not be null");
+        long now = nanoClock.getAsLong();
+        expirations.advance(now, this::onDeadline);
 
         // Das Token wird aus dem Benutzernamen plus einer zeitlich sortierten UUIDv7 gebildet.
         String token = username + "-mrpToken-" + UuidCreator.getTimeOrdered();
-        tokens.put(token, username);
+        TokenEntry entry = new TokenEntry(token, username, now + absoluteTtlNanos, now);
+        tokens.put(token, entry);
+        tokensByUser.compute(username, (user, userTokens) -> {
+            Deque<TokenEntry> result = userTokens != null ? userTokens : new ArrayDeque<>();
+            result.addLast(entry);
+            while (result.size() > maxTokensPerUser) {
+                TokenEntry oldest = result.pollFirst();
+                if (tokens.remove(oldest.token, oldest)) {
+                    evicted.incrementAndGet();
+                }
+            }
+            return result;
+        });
+        expirations.schedule(entry, entry.deadline(idleTimeoutNanos));
+        issued.incrementAndGet();
         return token;
     }
 
+    @Override
+    public String issueToken(int userId, String username) {
+        return issueToken(username);
+    }
+
     @Override
     public boolean isValid(String token) {
-        return token != null && tokens.containsKey(token);
+        return lookup(token) != null;
     }
 
     @Override
     public String resolveUsername(String token) {
-        return token == null ? null : tokens.get(token);
+        TokenEntry entry = lookup(token);
+        return entry == null ? null : entry.username;
     }
 
     @Override
     public void invalidate(String token) {
-        if (token != null) {
-            tokens.remove(token);
+        if (token == null) {
+            return;
+        }
+        TokenEntry entry = tokens.remove(token);
+        if (entry != null) {
+            forgetForUser(entry);
+        }
+    }
+
+    public TokenStatistics getStatistics() {
+        return new TokenStatistics(tokens.size(), issued.get(), expired.get(), evicted.get());
+    }
+
+    // Jeder erfolgreiche Zugriff verlängert die Inaktivitätsfrist; das Rad wird dabei nebenbei weitergedreht.
+    private TokenEntry lookup(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = nanoClock.getAsLong();
+        expirations.advance(now, this::onDeadline);
+        TokenEntry entry = tokens.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(now, idleTimeoutNanos)) {
+            expire(entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry;
+    }
+
+    // Wurde das Token zwischenzeitlich benutzt, liegt die echte Frist später: dann neu einplanen statt löschen.
+    private void onDeadline(TokenEntry entry) {
+        if (tokens.get(entry.token) != entry) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (entry.isExpired(now, idleTimeoutNanos)) {
+            expire(entry);
+        } else {
+            expirations.schedule(entry, entry.deadline(idleTimeoutNanos));
+        }
+    }
+
+    private void expire(TokenEntry entry) {
+        if (tokens.remove(entry.token, entry)) {
+            expired.incrementAndGet();
+            forgetForUser(entry);
+        }
+    }
+
+    private void forgetForUser(TokenEntry entry) {
+        tokensByUser.computeIfPresent(entry.username, (user, userTokens) -> {
+            userTokens.remove(entry);
+            return userTokens.isEmpty() ? null : userTokens;
+        });
+    }
+
+    private static long positive(Duration duration, String name) {
+        Objects.requireNonNull(duration, name + " must not be null");
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return duration.toNanos();
+    }
+
+    private static final class TokenEntry {
+        private final String token;
+        private final String username;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private TokenEntry(String token, String username, long expiresAt, long lastAccess) {
+            this.token = token;
+            this.username = username;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        private long deadline(long idleTimeoutNanos) {
+            return Math.min(expiresAt, lastAccess + idleTimeoutNanos);
+        }
+
+        private boolean isExpired(long now, long idleTimeoutNanos) {
+            return now - deadline(idleTimeoutNanos) >= 0;
         }
     }
 }
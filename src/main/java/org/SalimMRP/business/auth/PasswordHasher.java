@@ -8,4 +8,9 @@ public interface PasswordHasher {
 
     // Vergleicht, ob der Klartext zum gespeicherten Hash passt.
     boolean matches(String plainText, String hash);
+
+    // Meldet, ob ein gespeicherter Hash mit dem aktuellen Verfahren neu berechnet werden sollte.
+    default boolean needsRehash(String hash) {
+        return false;
+    }
 }
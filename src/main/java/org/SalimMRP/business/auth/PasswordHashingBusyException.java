@@ -0,0 +1,9 @@
+package org.SalimMRP.business.auth;
+
+// Wird geworfen, wenn der Hashing-Pool ausgelastet ist; die Anfrage sollte später wiederholt werden (503).
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
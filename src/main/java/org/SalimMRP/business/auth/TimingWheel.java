@@ -0,0 +1,88 @@
+package org.SalimMRP.business.auth;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Hashed Timing Wheel: Einträge landen im Slot ihres Fälligkeits-Ticks (modulo Radgröße). Einplanen ist O(1);
+// beim Weiterdrehen wird pro vergangenem Tick genau ein Slot abgearbeitet, Einträge späterer Runden bleiben liegen.
+// Es gibt keinen eigenen Thread: Aufrufer drehen das Rad bei Gelegenheit mit advance() weiter.
+final class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Timeout<T>>> slots;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+    private int size;
+
+    // slotCount wird auf die nächste Zweierpotenz aufgerundet.
+    TimingWheel(long tickNanos, int slotCount, long startNanos) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("tickNanos must be positive");
+        }
+        int slotsPowerOfTwo = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.mask = slotsPowerOfTwo - 1;
+        this.slots = new ArrayList<>(slotsPowerOfTwo);
+        for (int i = 0; i < slotsPowerOfTwo; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startNanos, tickNanos);
+    }
+
+    void schedule(T item, long deadlineNanos) {
+        lock.lock();
+        try {
+            long tick = Math.max(Math.floorDiv(deadlineNanos, tickNanos), currentTick + 1);
+            slots.get((int) (tick & mask)).add(new Timeout<>(item, tick));
+            size++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Arbeitet alle bis nowNanos fälligen Ticks ab. Dreht bereits ein anderer Thread, wird nicht gewartet.
+    // Die fälligen Einträge werden außerhalb der Sperre an onDue übergeben, damit dieses erneut einplanen darf.
+    void advance(long nowNanos, Consumer<T> onDue) {
+        if (!lock.tryLock()) {
+            return;
+        }
+        List<T> due = new ArrayList<>();
+        try {
+            long targetTick = Math.floorDiv(nowNanos, tickNanos);
+            long ticks = Math.min(targetTick - currentTick, mask + 1L);
+            for (long i = 1; i <= ticks; i++) {
+                Iterator<Timeout<T>> bucket = slots.get((int) ((currentTick + i) & mask)).iterator();
+                while (bucket.hasNext()) {
+                    Timeout<T> timeout = bucket.next();
+                    if (timeout.tick <= targetTick) {
+                        bucket.remove();
+                        size--;
+                        due.add(timeout.item);
+                    }
+                }
+            }
+            if (targetTick > currentTick) {
+                currentTick = targetTick;
+            }
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(onDue);
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Timeout<T>(T item, long tick) {
+    }
+}
@@ -6,6 +6,9 @@ public interface TokenService {
     // Erstellt ein neues Token für den angegebenen Benutzer.
     String issueToken(String username);
 
+    // Wie issueToken(username); Implementierungen können die Benutzer-ID zusätzlich im Token ablegen.
+    String issueToken(int userId, String username);
+
     // Prüft, ob das Token aktuell bekannt und gültig ist.
     boolean isValid(String token);
 
@@ -0,0 +1,42 @@
+package org.SalimMRP.business.auth;
+
+// Momentaufnahme der Token-Verwaltung für Monitoring und Logging.
+public class TokenStatistics {
+    private final int liveTokens;
+    private final long issuedTokens;
+    private final long expiredTokens;
+    private final long evictedTokens;
+
+    public TokenStatistics(int liveTokens, long issuedTokens, long expiredTokens, long evictedTokens) {
+        this.liveTokens = liveTokens;
+        this.issuedTokens = issuedTokens;
+        this.expiredTokens = expiredTokens;
+        this.evictedTokens = evictedTokens;
+    }
+
+    public int getLiveTokens() {
+        return liveTokens;
+    }
+
+    public long getIssuedTokens() {
+        return issuedTokens;
+    }
+
+    // Abgelaufen durch absolute Lebensdauer oder Inaktivität.
+    public long getExpiredTokens() {
+        return expiredTokens;
+    }
+
+    // Verdrängt, weil ein Benutzer mehr als die erlaubte Anzahl gleichzeitiger Tokens hatte.
+    public long getEvictedTokens() {
+        return evictedTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "live=" + liveTokens
+                + ", issued=" + issuedTokens
+                + ", expired=" + expiredTokens
+                + ", evicted=" + evictedTokens;
+    }
+}
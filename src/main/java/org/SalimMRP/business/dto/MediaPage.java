@@ -0,0 +1,28 @@
+package org.SalimMRP.business.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Eine Seite der Mediensuche samt Cursor für die nächste Seite (null, wenn keine weiteren Treffer folgen).
+public class MediaPage {
+    private final List<MediaDetails> items;
+    private final String nextCursor;
+
+    public MediaPage(List<MediaDetails> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.nextCursor = nextCursor;
+    }
+
+    public List<MediaDetails> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
@@ -10,6 +10,9 @@ public class MediaSearchCriteria {
     private Double minimumRating;
     private SortField sortField = SortField.TITLE;
     private SortDirection sortDirection = SortDirection.ASC;
+    private Integer limit;
+    private int offset;
+    private String cursor;
 
     public enum SortField {
         TITLE,
@@ -89,4 +92,30 @@ public class MediaSearchCriteria {
             this.sortDirection = sortDirection;
         }
     }
+
+    // Maximale Anzahl an Treffern; null bedeutet unbegrenzt.
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit != null && limit > 0 ? limit : null;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = Math.max(0, offset);
+    }
+
+    // Opaker Cursor aus einer vorherigen Seite; hat Vorrang vor offset.
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor == null || cursor.isBlank() ? null : cursor.trim();
+    }
 }
@@ -0,0 +1,35 @@
+package org.SalimMRP.business.dto;
+
+// Blätteroptionen für Rating-Listen eines Mediums oder Benutzers.
+// Standardmäßig werden nur Like-Anzahlen geliefert; includeLikedBy lädt zusätzlich die IDs aller Liker.
+public class RatingListRequest {
+    private Integer limit;
+    private String cursor;
+    private boolean includeLikedBy;
+
+    // Maximale Anzahl an Ratings pro Seite; null bedeutet Standardgröße.
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit != null && limit > 0 ? limit : null;
+    }
+
+    // Opaker Cursor aus der vorherigen Seite.
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor == null || cursor.isBlank() ? null : cursor.trim();
+    }
+
+    public boolean isIncludeLikedBy() {
+        return includeLikedBy;
+    }
+
+    public void setIncludeLikedBy(boolean includeLikedBy) {
+        this.includeLikedBy = includeLikedBy;
+    }
+}
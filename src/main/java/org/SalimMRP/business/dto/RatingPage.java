@@ -0,0 +1,30 @@
+package org.SalimMRP.business.dto;
+
+import org.SalimMRP.persistence.models.Rating;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Eine Seite von Ratings (neueste zuerst) samt Cursor für die nächste Seite (null, wenn keine weiteren folgen).
+public class RatingPage {
+    private final List<Rating> items;
+    private final String nextCursor;
+
+    public RatingPage(List<Rating> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Rating> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
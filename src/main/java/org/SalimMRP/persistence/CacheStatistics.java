@@ -0,0 +1,55 @@
+package org.SalimMRP.persistence;
+
+import java.util.Locale;
+
+// Momentaufnahme eines Caches für Monitoring und Logging.
+public class CacheStatistics {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public CacheStatistics(int size, int maxSize, long hits, long misses, long evictions) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    // Wegen Platzmangels verdrängte Einträge (Invalidierungen zählen nicht dazu).
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size + "/" + maxSize
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", hitRate=" + String.format(Locale.ROOT, "%.2f", getHitRate())
+                + ", evictions=" + evictions;
+    }
+}
@@ -0,0 +1,232 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.DataVersion;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Decorator vor einem MediaRepository, der Einzelabrufe per ID im Speicher hält (LRU, begrenzte Größe).
+// Schreibzugriffe gehen direkt an die Datenbank und entfernen danach den betroffenen Eintrag. Ein Ladevorgang,
+// der mit einem Schreibzugriff überlappt, legt sein Ergebnis nicht ab, damit keine veralteten Medien hängen bleiben.
+// Dasselbe gilt für Ladevorgänge aus einem Read-only-Snapshot, der vor dem letzten Schreibzugriff begann.
+// Änderungen anderer Knoten sieht der Cache erst nach Ablauf von ttl.
+public class CachingMediaRepository implements MediaRepository {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final MediaRepository delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LongSupplier snapshotStart;
+    private final Map<Integer, CachedMedia> entries;
+    private final AtomicLong writeEpoch = new AtomicLong();
+    private volatile long lastWriteAt = Long.MIN_VALUE;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long evictions;
+
+    public CachingMediaRepository(MediaRepository delegate, int maxEntries, Duration ttl) {
+        this(delegate, maxEntries, ttl, System::nanoTime, () -> Long.MAX_VALUE);
+    }
+
+    // Liest über connectionProvider; Snapshots seiner Read-only-Scopes können älter sein als die letzte Invalidierung.
+    public CachingMediaRepository(MediaRepository delegate, int maxEntries, Duration ttl,
+                                  ScopedConnectionProvider connectionProvider) {
+        this(delegate, maxEntries, ttl, System::nanoTime,
+                Objects.requireNonNull(connectionProvider, "connectionProvider must not be null")::snapshotStartedAt);
+    }
+
+    CachingMediaRepository(MediaRepository delegate, int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this(delegate, maxEntries, ttl, nanoClock, () -> Long.MAX_VALUE);
+    }
+
+    CachingMediaRepository(MediaRepository delegate, int maxEntries, Duration ttl, LongSupplier nanoClock,
+                           LongSupplier snapshotStart) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        Objects.requireNonNull(ttl, "ttl must not be null");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock must not be null");
+        this.snapshotStart = Objects.requireNonNull(snapshotStart, "snapshotStart must not be null");
+        // accessOrder = true: Jeder Treffer schiebt den Eintrag ans Ende, verdrängt wird vom Anfang.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedMedia> eldest) {
+                if (size() > CachingMediaRepository.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Media findById(int id) {
+        Media cached = lookup(id);
+        if (cached != null) {
+            return cached;
+        }
+        long epoch = writeEpoch.get();
+        Media loaded = delegate.findById(id);
+        if (loaded != null) {
+            store(loaded, epoch);
+        }
+        return loaded;
+    }
+
+    // Treffer kommen aus dem Speicher, nur die fehlenden IDs werden gemeinsam nachgeladen.
+    @Override
+    public List<Media> findByIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Media> found = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer id : ids) {
+            if (id == null || found.containsKey(id) || missing.contains(id)) {
+                continue;
+            }
+            Media cached = lookup(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long epoch = writeEpoch.get();
+            for (Media loaded : delegate.findByIds(List.copyOf(missing))) {
+                found.put(loaded.getId(), loaded);
+                store(loaded, epoch);
+            }
+        }
+        List<Media> result = new ArrayList<>(found.size());
+        for (Integer id : ids) {
+            Media media = id == null ? null : found.remove(id);
+            if (media != null) {
+                result.add(media);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean save(Media media) {
+        return delegate.save(media);
+    }
+
+    @Override
+    public List<Media> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Media> search(MediaFilter filter) {
+        return delegate.search(filter);
+    }
+
+    @Override
+    public DataVersion findVersion(int id) {
+        return delegate.findVersion(id);
+    }
+
+    @Override
+    public boolean update(Media media) {
+        try {
+            return delegate.update(media);
+        } finally {
+            invalidate(media.getId());
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        try {
+            return delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    public void invalidate(int id) {
+        markWrite();
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        markWrite();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public CacheStatistics getStatistics() {
+        synchronized (entries) {
+            return new CacheStatistics(entries.size(), maxEntries, hits.get(), misses.get(), evictions);
+        }
+    }
+
+    // Media ist veränderlich: Aufrufer bekommen immer eine eigene Kopie, der Cache behält seine.
+    private Media lookup(int id) {
+        long now = nanoClock.getAsLong();
+        CachedMedia cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+            if (cached != null && now - cached.loadedAt >= ttlNanos) {
+                entries.remove(id);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return cached.media.copy();
+    }
+
+    private void markWrite() {
+        synchronized (entries) {
+            writeEpoch.incrementAndGet();
+            lastWriteAt = nanoClock.getAsLong();
+        }
+    }
+
+    private void store(Media media, long epoch) {
+        // Erst nach dem Laden abfragen: Der Scope leiht seine Verbindung beim ersten Zugriff.
+        long snapshotStartedAt = snapshotStart.getAsLong();
+        CachedMedia cached = new CachedMedia(media.copy(), nanoClock.getAsLong());
+        synchronized (entries) {
+            // Seit dem Laden wurde geschrieben oder der Snapshot ist älter als der letzte Schreibzugriff:
+            // Der Wert könnte veraltet sein, also nicht ablegen.
+            if (writeEpoch.get() == epoch && lastWriteAt < snapshotStartedAt) {
+                entries.put(media.getId(), cached);
+            }
+        }
+    }
+
+    private record CachedMedia(Media media, long loadedAt) {
+    }
+}
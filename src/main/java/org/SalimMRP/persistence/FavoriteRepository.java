@@ -1,6 +1,8 @@
 package org.SalimMRP.persistence;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 // Verwaltet Favoriten-Verknüpfungen zwischen Benutzern und Medien.
 public interface FavoriteRepository {
@@ -14,4 +16,10 @@ public interface FavoriteRepository {
     List<Integer> findMediaIdsByUser(int userId);
 
     int countFavoritesForMedia(int mediaId);
+
+    // Favoriten-Anzahl für mehrere Medien (Media-ID -> Anzahl); Medien ohne Favoriten fehlen in der Map.
+    Map<Integer, Integer> countFavoritesForMediaIds(List<Integer> mediaIds);
+
+    // Teilmenge der übergebenen Media-IDs, die der Benutzer als Favorit markiert hat.
+    Set<Integer> findFavoriteMediaIds(int userId, List<Integer> mediaIds);
 }
@@ -5,7 +5,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 // JDBC-Implementierung für Favoritenabfragen und -aktionen.
 public class JdbcFavoriteRepository implements FavoriteRepository {
@@ -16,15 +20,26 @@ public class JdbcFavoriteRepository implements FavoriteRepository {
         this.connectionProvider = connectionProvider;
     }
 
+    // Favorit und favorite_count in media_stats werden gemeinsam geschrieben.
     @Override
     public boolean addFavorite(int userId, int mediaId) {
         String sql = "INSERT INTO favorites (user_id, media_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, userId);
-            stmt.setInt(2, mediaId);
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, mediaId);
+                boolean changed = stmt.executeUpdate() > 0;
+                if (changed) {
+                    MediaStatsWriter.favoriteChanged(conn, mediaId, 1);
+                    MediaStatsWriter.userDataChanged(conn, userId);
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error adding favorite: " + e.getMessage());
@@ -35,12 +50,22 @@ public class JdbcFavoriteRepository implements FavoriteRepository {
     @Override
     public boolean removeFavorite(int userId, int mediaId) {
         String sql = "DELETE FROM favorites WHERE user_id = ? AND media_id = ?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, userId);
-            stmt.setInt(2, mediaId);
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, mediaId);
+                boolean changed = stmt.executeUpdate() > 0;
+                if (changed) {
+                    MediaStatsWriter.favoriteChanged(conn, mediaId, -1);
+                    MediaStatsWriter.userDataChanged(conn, userId);
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error removing favorite: " + e.getMessage());
@@ -89,7 +114,7 @@ public class JdbcFavoriteRepository implements FavoriteRepository {
 
     @Override
     public int countFavoritesForMedia(int mediaId) {
-        String sql = "SELECT COUNT(*) FROM favorites WHERE media_id = ?";
+        String sql = "SELECT favorite_count FROM media_stats WHERE media_id = ?";
         try (Connection conn = connectionProvider.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -105,4 +130,67 @@ public class JdbcFavoriteRepository implements FavoriteRepository {
         }
         return 0;
     }
+
+    @Override
+    public Map<Integer, Integer> countFavoritesForMediaIds(List<Integer> mediaIds) {
+        if (mediaIds == null || mediaIds.isEmpty()) {
+            return Map.of();
+        }
+        String sql = """
+                SELECT media_id, favorite_count
+                  FROM media_stats
+                 WHERE media_id = ANY(?) AND favorite_count > 0
+                """;
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            var idsArray = conn.createArrayOf("int4", mediaIds.toArray(Integer[]::new));
+            try {
+                stmt.setArray(1, idsArray);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        counts.put(rs.getInt("media_id"), rs.getInt("favorite_count"));
+                    }
+                }
+            } finally {
+                idsArray.free();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error counting favorites: " + e.getMessage());
+        }
+        return counts;
+    }
+
+    @Override
+    public Set<Integer> findFavoriteMediaIds(int userId, List<Integer> mediaIds) {
+        if (mediaIds == null || mediaIds.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT media_id FROM favorites WHERE user_id = ? AND media_id = ANY(?)";
+        Set<Integer> favorites = new HashSet<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            var idsArray = conn.createArrayOf("int4", mediaIds.toArray(Integer[]::new));
+            try {
+                stmt.setInt(1, userId);
+                stmt.setArray(2, idsArray);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        favorites.add(rs.getInt("media_id"));
+                    }
+                }
+            } finally {
+                idsArray.free();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error checking favorites: " + e.getMessage());
+        }
+        return favorites;
+    }
 }
@@ -1,17 +1,24 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 // JDBC-Variante des MediaRepository mit den SQL-Statements für CRUD-Operationen.
 public class JdbcMediaRepository implements MediaRepository {
 
+    // Durchschnitt aus media_stats; identisch zur Berechnung in JdbcRatingRepository.summarizeByMediaIds.
+    private static final String AVERAGE_SCORE = "(CASE WHEN s.rating_count > 0 THEN s.star_sum::float8 / s.rating_count END)";
+
     private final ConnectionProvider connectionProvider;
 
     public JdbcMediaRepository(ConnectionProvider connectionProvider) {
@@ -97,11 +104,98 @@ public class JdbcMediaRepository implements MediaRepository {
         return null;
     }
 
+    @Override
+    public List<Media> findByIds(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT * FROM media WHERE id = ANY(?)";
+        Map<Integer, Media> byId = new HashMap<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            var idsArray = conn.createArrayOf("int4", ids.toArray(Integer[]::new));
+            try {
+                stmt.setArray(1, idsArray);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Media media = mapRow(rs);
+                        byId.put(media.getId(), media);
+                    }
+                }
+            } finally {
+                idsArray.free();
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching media by ids: " + e.getMessage());
+            return List.of();
+        }
+        List<Media> list = new ArrayList<>(byId.size());
+        for (Integer id : ids) {
+            Media media = byId.remove(id);
+            if (media != null) {
+                list.add(media);
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public List<Media> search(MediaFilter filter) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildSearchSql(filter, params);
+        List<Media> list = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error searching media: " + e.getMessage());
+        }
+        return list;
+    }
+
+    @Override
+    public DataVersion findVersion(int id) {
+        String sql = """
+                SELECT m.version, COALESCE(s.version, 0) AS stats_version
+                  FROM media m
+                  LEFT JOIN media_stats s ON s.media_id = m.id
+                 WHERE m.id = ?
+                """;
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return DataVersion.of(rs.getLong("version"), rs.getLong("stats_version"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching media version: " + e.getMessage());
+        }
+        return null;
+    }
+
     @Override
     public boolean update(Media media) {
         String sql = """
                 UPDATE media
-                   SET title = ?, description = ?, media_type = ?, release_year = ?, age_restriction = ?, genres = ?
+                   SET title = ?, description = ?, media_type = ?, release_year = ?, age_restriction = ?, genres = ?,
+                       version = version + 1
                  WHERE id = ?
                 """;
         try (Connection conn = connectionProvider.getConnection();
@@ -141,12 +235,18 @@ public class JdbcMediaRepository implements MediaRepository {
     @Override
     public boolean delete(int id) {
         String sql = "DELETE FROM media WHERE id=?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-            return true;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                MediaStatsWriter.mediaRemoved(conn, id);
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error deleting media: " + e.getMessage());
@@ -154,6 +254,122 @@ public class JdbcMediaRepository implements MediaRepository {
         }
     }
 
+    // Übersetzt den Filter in eine parametrisierte Abfrage; Werte landen ausschließlich in params.
+    private String buildSearchSql(MediaFilter filter, List<Object> params) {
+        boolean needsScore = filter.getMinimumRating() != null
+                || filter.getSortField() == MediaFilter.SortField.SCORE;
+
+        StringBuilder sql = new StringBuilder("SELECT m.* FROM media m");
+        if (needsScore) {
+            sql.append(" LEFT JOIN media_stats s ON s.media_id = m.id");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        // Die Teilstring-Suche beantwortet idx_media_title_trgm (pg_trgm, siehe V2) ohne Durchlauf aller Zeilen.
+        if (filter.getTitleQuery() != null) {
+            conditions.add("LOWER(m.title) LIKE ? ESCAPE '\\'");
+            params.add("%" + escapeLike(filter.getTitleQuery()) + "%");
+        }
+        if (filter.getMediaType() != null) {
+            conditions.add("LOWER(TRIM(m.media_type)) = ?");
+            params.add(filter.getMediaType());
+        }
+        if (filter.getGenre() != null) {
+            // mrp_normalize_genres stammt aus Migration V2 und ist per GIN-Index abgedeckt.
+            conditions.add("mrp_normalize_genres(m.genres) @> ARRAY[CAST(? AS TEXT)]");
+            params.add(filter.getGenre());
+        }
+        if (filter.getReleaseYear() != null) {
+            conditions.add("m.release_year = ?");
+            params.add(filter.getReleaseYear());
+        }
+        if (filter.getAgeRestriction() != null) {
+            conditions.add("LOWER(TRIM(m.age_restriction)) = ?");
+            params.add(filter.getAgeRestriction());
+        }
+        if (filter.getMinimumRating() != null) {
+            conditions.add(AVERAGE_SCORE + " >= ?");
+            params.add(filter.getMinimumRating());
+        }
+
+        List<SortKey> sortKeys = sortKeysFor(filter);
+        if (filter.hasAfter()) {
+            conditions.add(keysetCondition(sortKeys, params));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey key = sortKeys.get(i);
+            sql.append(i == 0 ? "" : ", ").append(key.expression()).append(key.descending() ? " DESC" : " ASC");
+        }
+
+        if (filter.getLimit() != null) {
+            sql.append(" LIMIT ?");
+            params.add(filter.getLimit());
+        }
+        if (filter.getOffset() > 0) {
+            sql.append(" OFFSET ?");
+            params.add(filter.getOffset());
+        }
+        return sql.toString();
+    }
+
+    // Sortierschlüssel inklusive eindeutigem Tiebreaker (id), damit Keyset-Blättern stabil ist.
+    // NULL-Jahre werden wie der kleinstmögliche Wert behandelt.
+    private List<SortKey> sortKeysFor(MediaFilter filter) {
+        boolean desc = filter.isDescending();
+        SortKey title = new SortKey("LOWER(m.title)", false, "LOWER(?)", filter.getAfterTitle());
+        SortKey id = new SortKey("m.id", false, "?", filter.getAfterId());
+        return switch (filter.getSortField()) {
+            case YEAR -> List.of(
+                    new SortKey("COALESCE(m.release_year, " + Integer.MIN_VALUE + ")", desc, "?",
+                            filter.getAfterReleaseYear() == null ? Integer.MIN_VALUE : filter.getAfterReleaseYear()),
+                    title,
+                    id);
+            case SCORE -> List.of(
+                    new SortKey("COALESCE(" + AVERAGE_SCORE + ", 0)", desc, "?", filter.getAfterScore()),
+                    title,
+                    id);
+            case TITLE -> List.of(
+                    new SortKey(title.expression(), desc, title.parameter(), title.value()),
+                    new SortKey(id.expression(), desc, id.parameter(), id.value()));
+        };
+    }
+
+    // (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... - je Schlüssel mit passender Richtung.
+    private String keysetCondition(List<SortKey> keys, List<Object> params) {
+        List<String> alternatives = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            StringBuilder alternative = new StringBuilder("(");
+            for (int j = 0; j < i; j++) {
+                SortKey equal = keys.get(j);
+                alternative.append(equal.expression()).append(" = ").append(equal.parameter()).append(" AND ");
+                params.add(equal.value());
+            }
+            SortKey key = keys.get(i);
+            alternative.append(key.expression())
+                    .append(key.descending() ? " < " : " > ")
+                    .append(key.parameter())
+                    .append(")");
+            params.add(key.value());
+            alternatives.add(alternative.toString());
+        }
+        return "(" + String.join(" OR ", alternatives) + ")";
+    }
+
+    // Maskiert die LIKE-Sonderzeichen, damit die Suche wörtlich nach dem Teilstring sucht.
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private record SortKey(String expression, boolean descending, String parameter, Object value) {
+    }
+
     private Media mapRow(ResultSet rs) throws SQLException {
         Media media = new Media();
         media.setId(rs.getInt("id"));
@@ -1,6 +1,7 @@
 package org.SalimMRP.persistence;
 
 import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
 import org.SalimMRP.persistence.models.RatingSummary;
 import org.SalimMRP.persistence.models.UserRatingCount;
 
@@ -12,8 +13,10 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 // JDBC-gestützte Umsetzung des RatingRepository inklusive Like- und Moderationsoperationen.
@@ -25,6 +28,7 @@ public class JdbcRatingRepository implements RatingRepository {
         this.connectionProvider = connectionProvider;
     }
 
+    // Rating und media_stats werden gemeinsam geschrieben.
     @Override
     public Rating save(Rating rating) {
         String sql = """
@@ -32,27 +36,34 @@ public class JdbcRatingRepository implements RatingRepository {
                 VALUES (?, ?, ?, ?, ?, ?)
                 """;
 
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setInt(1, rating.getMediaId());
-            stmt.setInt(2, rating.getUserId());
-            stmt.setInt(3, rating.getStarValue());
-            stmt.setString(4, rating.getComment());
-            stmt.setBoolean(5, rating.isCommentConfirmed());
-            if (rating.getCreatedAt() == null) {
-                stmt.setTimestamp(6, null);
-            } else {
-                stmt.setTimestamp(6, Timestamp.from(rating.getCreatedAt()));
-            }
-            stmt.executeUpdate();
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, rating.getMediaId());
+                stmt.setInt(2, rating.getUserId());
+                stmt.setInt(3, rating.getStarValue());
+                stmt.setString(4, rating.getComment());
+                stmt.setBoolean(5, rating.isCommentConfirmed());
+                if (rating.getCreatedAt() == null) {
+                    stmt.setTimestamp(6, null);
+                } else {
+                    stmt.setTimestamp(6, Timestamp.from(rating.getCreatedAt()));
+                }
+                stmt.executeUpdate();
 
-            try (ResultSet keys = stmt.getGeneratedKeys()) {
-                if (keys.next()) {
-                    rating.setId(keys.getInt(1));
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        rating.setId(keys.getInt(1));
+                    }
                 }
+                MediaStatsWriter.ratingChanged(conn, rating.getMediaId(), 0, rating.getStarValue());
+                MediaStatsWriter.userDataChanged(conn, rating.getUserId());
+                conn.commit();
+                return rating;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            return rating;
 
         } catch (SQLException e) {
             System.err.println("Error saving rating: " + e.getMessage());
@@ -62,24 +73,49 @@ public class JdbcRatingRepository implements RatingRepository {
 
     @Override
     public boolean update(Rating rating) {
+        String lockSql = "SELECT media_id, user_id, star_value FROM ratings WHERE id = ? FOR UPDATE";
         String sql = """
                 UPDATE ratings
                    SET star_value = ?, comment = ?, comment_confirmed = ?, created_at = ?
                  WHERE id = ?
                 """;
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                lock.setInt(1, rating.getId());
+                int mediaId;
+                int userId;
+                int oldStars;
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false;
+                    }
+                    mediaId = rs.getInt("media_id");
+                    userId = rs.getInt("user_id");
+                    oldStars = rs.getInt("star_value");
+                }
 
-            stmt.setInt(1, rating.getStarValue());
-            stmt.setString(2, rating.getComment());
-            stmt.setBoolean(3, rating.isCommentConfirmed());
-            if (rating.getCreatedAt() == null) {
-                stmt.setTimestamp(4, null);
-            } else {
-                stmt.setTimestamp(4, Timestamp.from(rating.getCreatedAt()));
+                stmt.setInt(1, rating.getStarValue());
+                stmt.setString(2, rating.getComment());
+                stmt.setBoolean(3, rating.isCommentConfirmed());
+                if (rating.getCreatedAt() == null) {
+                    stmt.setTimestamp(4, null);
+                } else {
+                    stmt.setTimestamp(4, Timestamp.from(rating.getCreatedAt()));
+                }
+                stmt.setInt(5, rating.getId());
+                boolean updated = stmt.executeUpdate() > 0;
+                MediaStatsWriter.ratingChanged(conn, mediaId, oldStars, rating.getStarValue());
+                MediaStatsWriter.userDataChanged(conn, userId);
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            stmt.setInt(5, rating.getId());
-            return stmt.executeUpdate() > 0;
 
         } catch (SQLException e) {
             System.err.println("Error updating rating: " + e.getMessage());
@@ -89,12 +125,25 @@ public class JdbcRatingRepository implements RatingRepository {
 
     @Override
     public boolean delete(int id) {
-        String sql = "DELETE FROM ratings WHERE id = ?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+        String sql = "DELETE FROM ratings WHERE id = ? RETURNING media_id, user_id, star_value";
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, id);
+                boolean deleted = false;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        MediaStatsWriter.ratingChanged(conn, rs.getInt("media_id"), rs.getInt("star_value"), 0);
+                        MediaStatsWriter.userDataChanged(conn, rs.getInt("user_id"));
+                        deleted = true;
+                    }
+                }
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error deleting rating: " + e.getMessage());
@@ -116,7 +165,7 @@ public class JdbcRatingRepository implements RatingRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(id));
+                    attachLikes(conn, List.of(rating));
                     return rating;
                 }
             }
@@ -142,7 +191,7 @@ public class JdbcRatingRepository implements RatingRepository {
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
+                    attachLikes(conn, List.of(rating));
                     return rating;
                 }
             }
@@ -169,11 +218,10 @@ public class JdbcRatingRepository implements RatingRepository {
             stmt.setInt(1, mediaId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
-                    ratings.add(rating);
+                    ratings.add(mapRow(rs));
                 }
             }
+            attachLikes(conn, ratings);
 
         } catch (SQLException e) {
             System.err.println("Error fetching ratings: " + e.getMessage());
@@ -195,16 +243,79 @@ public class JdbcRatingRepository implements RatingRepository {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ratings.add(mapRow(rs));
+                }
+            }
+            attachLikes(conn, ratings);
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching ratings by user: " + e.getMessage());
+        }
+        return ratings;
+    }
+
+    @Override
+    public List<Rating> findByMediaId(int mediaId, RatingPageRequest page) {
+        return findPage("media_id", mediaId, page);
+    }
+
+    @Override
+    public List<Rating> findByUserId(int userId, RatingPageRequest page) {
+        return findPage("user_id", userId, page);
+    }
+
+    // Gemeinsame Keyset-Abfrage für Rating-Listen eines Mediums oder Benutzers.
+    private List<Rating> findPage(String ownerColumn, int ownerId, RatingPageRequest page) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT r.id, r.media_id, r.user_id, r.star_value, r.comment, r.comment_confirmed, r.created_at
+                """);
+        if (!page.isIncludeLikedBy()) {
+            sql.append("""
+                         , (SELECT COUNT(*) FROM rating_likes l WHERE l.rating_id = r.id) AS like_count
+                         , EXISTS (SELECT 1 FROM rating_likes l WHERE l.rating_id = r.id AND l.user_id = ?) AS liked_by_viewer
+                    """);
+        }
+        sql.append(" FROM ratings r WHERE r.").append(ownerColumn).append(" = ?");
+        if (page.hasBefore()) {
+            sql.append(" AND (r.created_at, r.id) < (?, ?)");
+        }
+        sql.append(" ORDER BY r.created_at DESC, r.id DESC LIMIT ?");
+
+        List<Rating> ratings = new ArrayList<>();
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            if (!page.isIncludeLikedBy()) {
+                stmt.setInt(index++, page.getViewerUserId());
+            }
+            stmt.setInt(index++, ownerId);
+            if (page.hasBefore()) {
+                stmt.setTimestamp(index++, Timestamp.from(page.getBeforeCreatedAt()));
+                stmt.setInt(index++, page.getBeforeId());
+            }
+            stmt.setInt(index, page.getLimit());
+
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     Rating rating = mapRow(rs);
-                    rating.setLikedByUserIds(findLikes(rating.getId()));
+                    if (!page.isIncludeLikedBy()) {
+                        if (rs.getBoolean("liked_by_viewer")) {
+                            rating.likeByUser(page.getViewerUserId());
+                        }
+                        rating.setLikeCount(rs.getInt("like_count"));
+                    }
                     ratings.add(rating);
                 }
             }
+            if (page.isIncludeLikedBy()) {
+                attachLikes(conn, ratings);
+            }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching ratings by user: " + e.getMessage());
+            System.err.println("Error fetching rating page: " + e.getMessage());
         }
         return ratings;
     }
@@ -216,10 +327,12 @@ public class JdbcRatingRepository implements RatingRepository {
         }
 
         String sql = """
-                SELECT media_id, AVG(star_value) AS avg_score, COUNT(*) AS rating_count
-                  FROM ratings
-                 WHERE media_id = ANY(?)
-                 GROUP BY media_id
+                SELECT media_id,
+                       star_sum::float8 / rating_count AS avg_score,
+                       rating_count,
+                       stars_1, stars_2, stars_3, stars_4, stars_5
+                  FROM media_stats
+                 WHERE media_id = ANY(?) AND rating_count > 0
                 """;
 
         List<RatingSummary> summaries = new ArrayList<>();
@@ -232,11 +345,7 @@ public class JdbcRatingRepository implements RatingRepository {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    summaries.add(new RatingSummary(
-                            rs.getInt("media_id"),
-                            rs.getDouble("avg_score"),
-                            rs.getInt("rating_count")
-                    ));
+                    summaries.add(mapSummary(rs));
                 }
             }
             idsArray.free();
@@ -247,13 +356,41 @@ public class JdbcRatingRepository implements RatingRepository {
         return summaries;
     }
 
+    @Override
+    public List<RatingSummary> summarizeAll() {
+        String sql = """
+                SELECT media_id,
+                       star_sum::float8 / rating_count AS avg_score,
+                       rating_count,
+                       stars_1, stars_2, stars_3, stars_4, stars_5
+                  FROM media_stats
+                 WHERE rating_count > 0
+                """;
+
+        List<RatingSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                summaries.add(mapSummary(rs));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error summarizing all ratings: " + e.getMessage());
+        }
+        return summaries;
+    }
+
     @Override
     public List<UserRatingCount> findRatingCountsPerUser(int limit) {
         String sql = """
-                SELECT user_id, COUNT(*) AS rating_count
-                  FROM ratings
-                 GROUP BY user_id
-                 ORDER BY rating_count DESC, user_id ASC
+                SELECT r.user_id, u.username, COUNT(*) AS rating_count
+                  FROM ratings r
+                  JOIN users u ON u.id = r.user_id
+                 GROUP BY r.user_id, u.username
+                 ORDER BY rating_count DESC, r.user_id ASC
                  LIMIT ?
                 """;
 
@@ -269,6 +406,7 @@ public class JdbcRatingRepository implements RatingRepository {
                 while (rs.next()) {
                     result.add(new UserRatingCount(
                             rs.getInt("user_id"),
+                            rs.getString("username"),
                             rs.getLong("rating_count")
                     ));
                 }
@@ -280,14 +418,24 @@ public class JdbcRatingRepository implements RatingRepository {
         return result;
     }
 
+    // Bestätigung und Likes sind in den Medien-Details sichtbar und erhöhen daher die Version in media_stats.
     @Override
     public boolean confirmComment(int ratingId) {
         String sql = "UPDATE ratings SET comment_confirmed = TRUE WHERE id = ?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, ratingId);
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, ratingId);
+                boolean changed = stmt.executeUpdate() > 0;
+                if (changed) {
+                    MediaStatsWriter.ratingTouched(conn, ratingId);
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error confirming rating comment: " + e.getMessage());
@@ -298,13 +446,19 @@ public class JdbcRatingRepository implements RatingRepository {
     @Override
     public boolean addLike(int ratingId, int userId) {
         String sql = "INSERT INTO rating_likes (rating_id, user_id) VALUES (?, ?)";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, ratingId);
-            stmt.setInt(2, userId);
-            stmt.executeUpdate();
-            return true;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, ratingId);
+                stmt.setInt(2, userId);
+                stmt.executeUpdate();
+                MediaStatsWriter.ratingTouched(conn, ratingId);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             if (isUniqueViolation(e)) {
@@ -318,12 +472,21 @@ public class JdbcRatingRepository implements RatingRepository {
     @Override
     public boolean removeLike(int ratingId, int userId) {
         String sql = "DELETE FROM rating_likes WHERE rating_id = ? AND user_id = ?";
-        try (Connection conn = connectionProvider.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, ratingId);
-            stmt.setInt(2, userId);
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = connectionProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, ratingId);
+                stmt.setInt(2, userId);
+                boolean changed = stmt.executeUpdate() > 0;
+                if (changed) {
+                    MediaStatsWriter.ratingTouched(conn, ratingId);
+                }
+                conn.commit();
+                return changed;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
 
         } catch (SQLException e) {
             System.err.println("Error removing like: " + e.getMessage());
@@ -352,6 +515,37 @@ public class JdbcRatingRepository implements RatingRepository {
         return likes;
     }
 
+    // Lädt die Likes aller übergebenen Ratings mit einer einzigen Abfrage über dieselbe Verbindung.
+    private void attachLikes(Connection conn, List<Rating> ratings) throws SQLException {
+        if (ratings.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = ratings.stream().map(Rating::getId).toList();
+        Map<Integer, Set<Integer>> likes = loadLikes(conn, ids);
+        for (Rating rating : ratings) {
+            rating.setLikedByUserIds(likes.get(rating.getId()));
+        }
+    }
+
+    private Map<Integer, Set<Integer>> loadLikes(Connection conn, List<Integer> ratingIds) throws SQLException {
+        String sql = "SELECT rating_id, user_id FROM rating_likes WHERE rating_id = ANY(?)";
+        Map<Integer, Set<Integer>> likes = new HashMap<>();
+
+        var idsArray = conn.createArrayOf("int4", ratingIds.toArray(Integer[]::new));
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setArray(1, idsArray);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    likes.computeIfAbsent(rs.getInt("rating_id"), key -> new HashSet<>())
+                            .add(rs.getInt("user_id"));
+                }
+            }
+        } finally {
+            idsArray.free();
+        }
+        return likes;
+    }
+
     private Rating mapRow(ResultSet rs) throws SQLException {
         Rating rating = new Rating();
         rating.setId(rs.getInt("id"));
@@ -373,4 +567,19 @@ public class JdbcRatingRepository implements RatingRepository {
         // SQLState 23505 entspricht Unique-Violation in PostgreSQL.
         return "23505".equals(e.getSQLState());
     }
+
+    private RatingSummary mapSummary(ResultSet rs) throws SQLException {
+        return new RatingSummary(
+                rs.getInt("media_id"),
+                rs.getDouble("avg_score"),
+                rs.getInt("rating_count"),
+                new int[]{
+                        rs.getInt("stars_1"),
+                        rs.getInt("stars_2"),
+                        rs.getInt("stars_3"),
+                        rs.getInt("stars_4"),
+                        rs.getInt("stars_5")
+                }
+        );
+    }
 }
@@ -1,5 +1,6 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.User;
 
 import java.sql.Connection;
@@ -86,4 +87,47 @@ public class JdbcUserRepository implements UserRepository {
         }
         return null;
     }
+
+    @Override
+    public boolean updatePassword(int userId, String passwordHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ?";
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, passwordHash);
+            stmt.setInt(2, userId);
+            return stmt.executeUpdate() == 1;
+
+        } catch (SQLException e) {
+            System.err.println("Error updating password: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public DataVersion findProfileVersion(int userId) {
+        String sql = """
+                SELECT u.data_version,
+                       COALESCE((SELECT SUM(m.version)
+                                   FROM ratings r
+                                   JOIN media m ON m.id = r.media_id
+                                  WHERE r.user_id = u.id), 0) AS media_version
+                  FROM users u
+                 WHERE u.id = ?
+                """;
+        try (Connection conn = connectionProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return DataVersion.of(rs.getLong("data_version"), rs.getLong("media_version"));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error fetching profile version: " + e.getMessage());
+        }
+        return null;
+    }
 }
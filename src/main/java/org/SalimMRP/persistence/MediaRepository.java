@@ -1,6 +1,8 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
 
 import java.util.List;
 
@@ -13,6 +15,15 @@ public interface MediaRepository {
 
     Media findById(int id);
 
+    // Lädt mehrere Medien in einer Abfrage; Reihenfolge wie in ids, jedes Medium einmal, unbekannte IDs fehlen.
+    List<Media> findByIds(List<Integer> ids);
+
+    // Filtert, sortiert und begrenzt direkt in der Datenbank.
+    List<Media> search(MediaFilter filter);
+
+    // Versionsstand von Medium und zugehörigen Kennzahlen; null, wenn das Medium nicht existiert.
+    DataVersion findVersion(int id);
+
     boolean update(Media media);
 
     boolean delete(int id);
@@ -0,0 +1,107 @@
+package org.SalimMRP.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// Pflegt die Zeilen in media_stats. Wird ausschließlich innerhalb der Schreibtransaktionen der Repositories
+// aufgerufen, damit Kennzahlen und Rohdaten nie auseinanderlaufen. Jede Änderung erhöht außerdem die Version,
+// aus der die ETags der Medien-Antworten gebildet werden.
+final class MediaStatsWriter {
+
+    private static final String UPSERT = """
+            INSERT INTO media_stats (media_id, rating_count, star_sum, stars_1, stars_2, stars_3, stars_4, stars_5, favorite_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (media_id) DO UPDATE
+               SET rating_count = media_stats.rating_count + EXCLUDED.rating_count,
+                   star_sum = media_stats.star_sum + EXCLUDED.star_sum,
+                   stars_1 = media_stats.stars_1 + EXCLUDED.stars_1,
+                   stars_2 = media_stats.stars_2 + EXCLUDED.stars_2,
+                   stars_3 = media_stats.stars_3 + EXCLUDED.stars_3,
+                   stars_4 = media_stats.stars_4 + EXCLUDED.stars_4,
+                   stars_5 = media_stats.stars_5 + EXCLUDED.stars_5,
+                   favorite_count = media_stats.favorite_count + EXCLUDED.favorite_count,
+                   version = media_stats.version + 1
+            """;
+
+    private static final String TOUCH_BY_RATING = """
+            UPDATE media_stats
+               SET version = version + 1
+             WHERE media_id = (SELECT media_id FROM ratings WHERE id = ?)
+            """;
+
+    private static final String TOUCH_USERS_OF_MEDIA = """
+            UPDATE users
+               SET data_version = data_version + 1
+             WHERE id IN (SELECT user_id FROM ratings WHERE media_id = ?
+                          UNION
+                          SELECT user_id FROM favorites WHERE media_id = ?)
+            """;
+
+    private MediaStatsWriter() {
+    }
+
+    // Überträgt eine Rating-Änderung; 0 steht für "kein Rating" (vorher bei Neuanlage, nachher bei Löschung).
+    // Bei gleichen Sternen (z. B. nur der Kommentar wurde geändert) wird lediglich die Version erhöht.
+    static void ratingChanged(Connection conn, int mediaId, int oldStars, int newStars) throws SQLException {
+        int[] starDeltas = new int[5];
+        int countDelta = 0;
+        if (oldStars > 0) {
+            starDeltas[oldStars - 1]--;
+            countDelta--;
+        }
+        if (newStars > 0) {
+            starDeltas[newStars - 1]++;
+            countDelta++;
+        }
+        upsert(conn, mediaId, countDelta, newStars - oldStars, starDeltas, 0);
+    }
+
+    static void favoriteChanged(Connection conn, int mediaId, int delta) throws SQLException {
+        upsert(conn, mediaId, 0, 0, new int[5], delta);
+    }
+
+    // Für Änderungen, die keine Kennzahl betreffen, aber in den Medien-Details sichtbar sind (Likes, Bestätigungen).
+    static void ratingTouched(Connection conn, int ratingId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(TOUCH_BY_RATING)) {
+            stmt.setInt(1, ratingId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Profilwerte eines Benutzers hängen an seinen Ratings und Favoriten.
+    static void userDataChanged(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE users SET data_version = data_version + 1 WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Vor dem Löschen eines Mediums aufrufen: ON DELETE CASCADE entfernt Ratings und Favoriten sonst,
+    // ohne dass sich die Profilversion der betroffenen Benutzer ändert.
+    static void mediaRemoved(Connection conn, int mediaId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(TOUCH_USERS_OF_MEDIA)) {
+            stmt.setInt(1, mediaId);
+            stmt.setInt(2, mediaId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void upsert(Connection conn,
+                               int mediaId,
+                               int countDelta,
+                               int starSumDelta,
+                               int[] starDeltas,
+                               int favoriteDelta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+            stmt.setInt(1, mediaId);
+            stmt.setInt(2, countDelta);
+            stmt.setLong(3, starSumDelta);
+            for (int i = 0; i < starDeltas.length; i++) {
+                stmt.setInt(4 + i, starDeltas[i]);
+            }
+            stmt.setInt(9, favoriteDelta);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.SalimMRP.persistence;
+
+import java.util.Objects;
+
+// Einstellungen für den Connection-Pool. Die Defaults entsprechen der lokalen Entwicklungsumgebung
+// und können über Setter (z. B. aus Umgebungsvariablen) überschrieben werden.
+public class PoolSettings {
+    private String jdbcUrl = "jdbc:postgresql://localhost:5433/mrp_db";
+    private String username = "postgres";
+    private String password = "postgres";
+    private String poolName = "mrp-pool";
+    private int maximumPoolSize = 10;
+    private int minimumIdle = 2;
+    private long connectionTimeoutMillis = 5_000;
+    private long idleTimeoutMillis = 600_000;
+    private long maxLifetimeMillis = 1_800_000;
+    private long validationTimeoutMillis = 2_000;
+    private long leakDetectionThresholdMillis = 0;
+    private String connectionTestQuery;
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public void setJdbcUrl(String jdbcUrl) {
+        this.jdbcUrl = Objects.requireNonNull(jdbcUrl, "jdbcUrl must not be null");
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = Objects.requireNonNull(username, "username must not be null");
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = Objects.requireNonNull(password, "password must not be null");
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = Objects.requireNonNull(poolName, "poolName must not be null");
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+        if (maximumPoolSize < 1) {
+            throw new IllegalArgumentException("maximumPoolSize must be at least 1");
+        }
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+
+    public void setMinimumIdle(int minimumIdle) {
+        if (minimumIdle < 0) {
+            throw new IllegalArgumentException("minimumIdle must not be negative");
+        }
+        this.minimumIdle = minimumIdle;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public long getValidationTimeoutMillis() {
+        return validationTimeoutMillis;
+    }
+
+    public void setValidationTimeoutMillis(long validationTimeoutMillis) {
+        this.validationTimeoutMillis = validationTimeoutMillis;
+    }
+
+    // 0 deaktiviert die Leak-Erkennung.
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    // Ohne Test-Query nutzt der Pool Connection.isValid(), was bei modernen Treibern bevorzugt wird.
+    public String getConnectionTestQuery() {
+        return connectionTestQuery;
+    }
+
+    public void setConnectionTestQuery(String connectionTestQuery) {
+        this.connectionTestQuery = connectionTestQuery;
+    }
+}
@@ -0,0 +1,51 @@
+package org.SalimMRP.persistence;
+
+// Momentaufnahme der Pool-Auslastung für Monitoring und Logging.
+public class PoolStatistics {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingConnection;
+    private final int maximumPoolSize;
+
+    public PoolStatistics(int activeConnections,
+                          int idleConnections,
+                          int totalConnections,
+                          int threadsAwaitingConnection,
+                          int maximumPoolSize) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.maximumPoolSize = maximumPoolSize;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return "active=" + activeConnections
+                + ", idle=" + idleConnections
+                + ", total=" + totalConnections
+                + ", waiting=" + threadsAwaitingConnection
+                + ", max=" + maximumPoolSize;
+    }
+}
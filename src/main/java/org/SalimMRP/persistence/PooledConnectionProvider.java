@@ -0,0 +1,67 @@
+package org.SalimMRP.persistence;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+
+// ConnectionProvider auf Basis von HikariCP. Verbindungen werden wiederverwendet statt bei jedem
+// Repository-Aufruf neu aufgebaut; close() auf einer geliehenen Connection gibt sie an den Pool zurück.
+public class PooledConnectionProvider implements ConnectionProvider, AutoCloseable {
+
+    private final HikariDataSource dataSource;
+
+    public PooledConnectionProvider(PoolSettings settings) {
+        Objects.requireNonNull(settings, "settings must not be null");
+        this.dataSource = new HikariDataSource(toHikariConfig(settings));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    // Liefert die aktuelle Auslastung; die Werte werden zusätzlich per JMX veröffentlicht.
+    public PoolStatistics getStatistics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return new PoolStatistics(0, 0, 0, 0, dataSource.getMaximumPoolSize());
+        }
+        return new PoolStatistics(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                dataSource.getMaximumPoolSize()
+        );
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    private static HikariConfig toHikariConfig(PoolSettings settings) {
+        HikariConfig config = new HikariConfig();
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(settings.getJdbcUrl());
+        config.setUsername(settings.getUsername());
+        config.setPassword(settings.getPassword());
+        config.setPoolName(settings.getPoolName());
+        config.setMaximumPoolSize(settings.getMaximumPoolSize());
+        config.setMinimumIdle(Math.min(settings.getMinimumIdle(), settings.getMaximumPoolSize()));
+        config.setConnectionTimeout(settings.getConnectionTimeoutMillis());
+        config.setIdleTimeout(settings.getIdleTimeoutMillis());
+        config.setMaxLifetime(settings.getMaxLifetimeMillis());
+        config.setValidationTimeout(settings.getValidationTimeoutMillis());
+        config.setLeakDetectionThreshold(settings.getLeakDetectionThresholdMillis());
+        if (settings.getConnectionTestQuery() != null && !settings.getConnectionTestQuery().isBlank()) {
+            config.setConnectionTestQuery(settings.getConnectionTestQuery());
+        }
+        config.setRegisterMbeans(true);
+        return config;
+    }
+}
@@ -1,6 +1,7 @@
 package org.SalimMRP.persistence;
 
 import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
 import org.SalimMRP.persistence.models.RatingSummary;
 import org.SalimMRP.persistence.models.UserRatingCount;
 
@@ -24,8 +25,17 @@ public interface RatingRepository {
 
     List<Rating> findByUserId(int userId);
 
+    // Seitenweise Varianten, sortiert nach created_at DESC, id DESC.
+    List<Rating> findByMediaId(int mediaId, RatingPageRequest page);
+
+    List<Rating> findByUserId(int userId, RatingPageRequest page);
+
     List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds);
 
+    // Kennzahlen aller Medien mit mindestens einem Rating (zum Befüllen eines Speichers beim Start).
+    List<RatingSummary> summarizeAll();
+
+    // Rating-Anzahl pro Benutzer inklusive Benutzername, absteigend sortiert; limit <= 0 liefert alle.
     List<UserRatingCount> findRatingCountsPerUser(int limit);
 
     boolean confirmComment(int ratingId);
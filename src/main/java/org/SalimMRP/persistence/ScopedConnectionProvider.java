@@ -0,0 +1,163 @@
+package org.SalimMRP.persistence;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+
+// ConnectionProvider mit Arbeitseinheit pro Thread: Innerhalb eines geöffneten Scopes teilen sich alle
+// Repository-Aufrufe eine geliehene Verbindung. Ohne Scope wird wie bisher direkt an den Pool delegiert.
+public class ScopedConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final ThreadLocal<Scope> currentScope = new ThreadLocal<>();
+
+    public ScopedConnectionProvider(ConnectionProvider delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+    }
+
+    // Öffnet einen Scope für den aktuellen Thread. Verschachtelte Aufrufe schließen sich dem äußeren Scope an.
+    // readOnly führt alle Abfragen in einer lesenden REPEATABLE-READ-Transaktion aus (konsistenter Snapshot).
+    public ConnectionScope openScope(boolean readOnly) {
+        Scope scope = currentScope.get();
+        if (scope != null) {
+            scope.depth++;
+            return scope;
+        }
+        scope = new Scope(readOnly);
+        currentScope.set(scope);
+        return scope;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Scope scope = currentScope.get();
+        if (scope == null) {
+            return delegate.getConnection();
+        }
+        return scope.borrow();
+    }
+
+    // Zeitpunkt (System.nanoTime), zu dem der Read-only-Scope des aktuellen Threads seine Verbindung geliehen hat.
+    // Was danach geschrieben wurde, fehlt in seinem Snapshot. Long.MAX_VALUE, solange kein Snapshot läuft.
+    public long snapshotStartedAt() {
+        Scope scope = currentScope.get();
+        if (scope == null || !scope.readOnly || scope.connection == null) {
+            return Long.MAX_VALUE;
+        }
+        return scope.snapshotStartedAt;
+    }
+
+    // Handle auf einen geöffneten Scope; close() gibt die geteilte Verbindung an den Pool zurück.
+    public interface ConnectionScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final class Scope implements ConnectionScope {
+        private final boolean readOnly;
+        private int depth = 1;
+        private Connection connection;
+        private Connection shared;
+        private long snapshotStartedAt;
+
+        private Scope(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        private Connection borrow() throws SQLException {
+            if (shared != null) {
+                return shared;
+            }
+            long startedAt = System.nanoTime();
+            Connection conn = delegate.getConnection();
+            try {
+                if (readOnly) {
+                    conn.setAutoCommit(false);
+                    conn.setReadOnly(true);
+                    conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                }
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            connection = conn;
+            snapshotStartedAt = startedAt;
+            shared = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new SharedConnectionHandler(conn, readOnly));
+            return shared;
+        }
+
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            currentScope.remove();
+            if (connection == null) {
+                return;
+            }
+            try (Connection conn = connection) {
+                if (readOnly) {
+                    conn.rollback();
+                    conn.setReadOnly(false);
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    conn.setAutoCommit(true);
+                } else if (!conn.getAutoCommit()) {
+                    // Eine nicht abgeschlossene Repository-Transaktion wird verworfen, nicht halb übernommen.
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error releasing scoped connection: " + e.getMessage());
+            }
+        }
+    }
+
+    // Leitet alles an die echte Verbindung weiter; close() der Repositories beendet nur ihren Anteil.
+    private static final class SharedConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final boolean readOnly;
+
+        private SharedConnectionHandler(Connection target, boolean readOnly) {
+            this.target = target;
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    // Repositories setzen autoCommit für Schreibtransaktionen auf false; für den nächsten
+                    // Aufruf im Scope wird der Ausgangszustand wiederhergestellt. Offen Gebliebenes wird verworfen.
+                    if (!readOnly && !target.getAutoCommit()) {
+                        target.rollback();
+                        target.setAutoCommit(true);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return target.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.SalimMRP.persistence;
 
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.User;
 
 // Schnittstelle für das Speichern und Nachschlagen von Benutzern.
@@ -10,4 +11,10 @@ public interface UserRepository {
     User findByUsername(String username);
 
     User findById(int id);
+
+    // Ersetzt den gespeicherten Passwort-Hash (z. B. beim Umstieg auf ein stärkeres Verfahren).
+    boolean updatePassword(int userId, String passwordHash);
+
+    // Versionsstand der Profildaten (eigene Ratings, Favoriten und die Genres der bewerteten Medien).
+    DataVersion findProfileVersion(int userId);
 }
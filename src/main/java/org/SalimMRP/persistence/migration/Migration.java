@@ -0,0 +1,54 @@
+package org.SalimMRP.persistence.migration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Eine versionierte Schemaänderung, benannt nach dem Muster V<Version>__<Beschreibung>.sql.
+public class Migration {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private final int version;
+    private final String description;
+    private final String sql;
+    private final long checksum;
+
+    public Migration(int version, String description, String sql) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("version must be positive");
+        }
+        this.version = version;
+        this.description = Objects.requireNonNull(description, "description must not be null");
+        this.sql = Objects.requireNonNull(sql, "sql must not be null");
+        CRC32 crc = new CRC32();
+        crc.update(sql.getBytes(StandardCharsets.UTF_8));
+        this.checksum = crc.getValue();
+    }
+
+    static Migration fromFile(String fileName, String sql) {
+        Matcher matcher = FILE_NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid migration file name: " + fileName);
+        }
+        return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), sql);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,165 @@
+package org.SalimMRP.persistence.migration;
+
+import org.SalimMRP.persistence.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Spielt versionierte Schemaänderungen beim Start ein. Bereits angewendete Versionen stehen in schema_migrations;
+// ein Advisory-Lock sorgt dafür, dass bei mehreren gleichzeitig startenden Knoten nur einer migriert.
+public class MigrationRunner {
+
+    public static final String DEFAULT_LOCATION = "db/migration";
+
+    private static final String INDEX_FILE = "migrations.txt";
+    private static final long LOCK_KEY = 0x4D52505F4D4947L;
+
+    private final ConnectionProvider connectionProvider;
+    private final List<Migration> migrations;
+
+    public MigrationRunner(ConnectionProvider connectionProvider, List<Migration> migrations) {
+        this.connectionProvider = Objects.requireNonNull(connectionProvider, "connectionProvider must not be null");
+        Objects.requireNonNull(migrations, "migrations must not be null");
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Duplicate migration version " + sorted.get(i).getVersion());
+            }
+        }
+        this.migrations = List.copyOf(sorted);
+    }
+
+    // Liest die in migrations.txt aufgeführten Skripte aus dem Klassenpfad (funktioniert auch im JAR).
+    public static List<Migration> loadFromClasspath(String location) {
+        ClassLoader loader = MigrationRunner.class.getClassLoader();
+        List<Migration> result = new ArrayList<>();
+        for (String fileName : readLines(loader, location + "/" + INDEX_FILE)) {
+            String sql = readResource(loader, location + "/" + fileName);
+            result.add(Migration.fromFile(fileName, sql));
+        }
+        return result;
+    }
+
+    // Liefert false, wenn eine Migration fehlschlägt; die fehlerhafte Version wird vollständig zurückgerollt.
+    public boolean migrate() {
+        try (Connection conn = connectionProvider.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(true);
+            advisoryLock(conn, "pg_advisory_lock");
+            try {
+                ensureHistoryTable(conn);
+                Map<Integer, Long> applied = loadAppliedVersions(conn);
+                for (Migration migration : migrations) {
+                    Long checksum = applied.get(migration.getVersion());
+                    if (checksum == null) {
+                        apply(conn, migration);
+                    } else if (checksum != migration.getChecksum()) {
+                        System.err.println("Warning: migration V" + migration.getVersion()
+                                + " was changed after it had been applied");
+                    }
+                }
+            } finally {
+                advisoryLock(conn, "pg_advisory_unlock");
+                conn.setAutoCommit(autoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error running database migrations: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(migration.getSql());
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO schema_migrations (version, description, checksum, execution_ms)
+                    VALUES (?, ?, ?, ?)
+                    """)) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.setLong(3, migration.getChecksum());
+                stmt.setLong(4, (System.nanoTime() - start) / 1_000_000);
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            System.out.println("Applied migration V" + migration.getVersion() + " (" + migration.getDescription() + ")");
+        } catch (SQLException e) {
+            conn.rollback();
+            throw new SQLException("Migration V" + migration.getVersion() + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void ensureHistoryTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_migrations (
+                        version INT PRIMARY KEY,
+                        description TEXT NOT NULL,
+                        checksum BIGINT NOT NULL,
+                        applied_at TIMESTAMP NOT NULL DEFAULT now(),
+                        execution_ms BIGINT NOT NULL
+                    )
+                    """);
+        }
+    }
+
+    private Map<Integer, Long> loadAppliedVersions(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void advisoryLock(Connection conn, String function) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT " + function + "(?)")) {
+            stmt.setLong(1, LOCK_KEY);
+            stmt.execute();
+        }
+    }
+
+    private static List<String> readLines(ClassLoader loader, String path) {
+        List<String> lines = new ArrayList<>();
+        for (String line : readResource(loader, path).split("\\R")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                lines.add(trimmed);
+            }
+        }
+        return lines;
+    }
+
+    private static String readResource(ClassLoader loader, String path) {
+        try (InputStream in = loader.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration resource not found: " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read migration resource " + path, e);
+        }
+    }
+}
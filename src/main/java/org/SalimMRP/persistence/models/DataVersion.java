@@ -0,0 +1,44 @@
+package org.SalimMRP.persistence.models;
+
+import java.util.Arrays;
+
+// Versionsstand einer gelesenen Ressource, zusammengesetzt aus einem oder mehreren Zählern der Datenbank
+// (z. B. media.version und media_stats.version). Ändert sich einer davon, ändert sich auch die Darstellung.
+public final class DataVersion {
+    private final long[] components;
+
+    private DataVersion(long[] components) {
+        this.components = components;
+    }
+
+    public static DataVersion of(long... components) {
+        return new DataVersion(components.clone());
+    }
+
+    // Kompakte, URL- und Header-taugliche Form, z. B. "3.17".
+    public String asToken() {
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < components.length; i++) {
+            if (i > 0) {
+                token.append('.');
+            }
+            token.append(Long.toString(components[i], 36));
+        }
+        return token.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DataVersion other && Arrays.equals(components, other.components);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(components);
+    }
+
+    @Override
+    public String toString() {
+        return asToken();
+    }
+}
@@ -36,6 +36,13 @@ public class Media {
         this.createdByUserId = createdByUserId;
     }
 
+    // Eigenständige Kopie, z. B. für Caches, die ihre Einträge vor Änderungen durch Aufrufer schützen.
+    public Media copy() {
+        Media copy = new Media(title, description, mediaType, releaseYear, ageRestriction, genres, createdByUserId);
+        copy.setId(id);
+        return copy;
+    }
+
     public int getId() {
         return id;
     }
@@ -0,0 +1,137 @@
+package org.SalimMRP.persistence.models;
+
+// Filter-, Sortier- und Blätterparameter für die Mediensuche auf Datenbankebene.
+// Textwerte werden bereits normalisiert (getrimmt, kleingeschrieben) übergeben.
+public class MediaFilter {
+    private String titleQuery;
+    private String mediaType;
+    private String genre;
+    private Integer releaseYear;
+    private String ageRestriction;
+    private Double minimumRating;
+    private SortField sortField = SortField.TITLE;
+    private boolean descending;
+    private Integer limit;
+    private int offset;
+    private Integer afterId;
+    private String afterTitle;
+    private Integer afterReleaseYear;
+    private double afterScore;
+
+    public enum SortField {
+        TITLE,
+        YEAR,
+        SCORE
+    }
+
+    public String getTitleQuery() {
+        return titleQuery;
+    }
+
+    public void setTitleQuery(String titleQuery) {
+        this.titleQuery = titleQuery;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public void setMediaType(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public Integer getReleaseYear() {
+        return releaseYear;
+    }
+
+    public void setReleaseYear(Integer releaseYear) {
+        this.releaseYear = releaseYear;
+    }
+
+    public String getAgeRestriction() {
+        return ageRestriction;
+    }
+
+    public void setAgeRestriction(String ageRestriction) {
+        this.ageRestriction = ageRestriction;
+    }
+
+    public Double getMinimumRating() {
+        return minimumRating;
+    }
+
+    public void setMinimumRating(Double minimumRating) {
+        this.minimumRating = minimumRating;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(SortField sortField) {
+        if (sortField != null) {
+            this.sortField = sortField;
+        }
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    // null bedeutet: keine Begrenzung.
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = Math.max(0, offset);
+    }
+
+    // Keyset-Position: Es werden nur Einträge geliefert, die in der Sortierung nach diesem Eintrag folgen.
+    public void setAfter(int id, String title, Integer releaseYear, double score) {
+        this.afterId = id;
+        this.afterTitle = title;
+        this.afterReleaseYear = releaseYear;
+        this.afterScore = score;
+    }
+
+    public boolean hasAfter() {
+        return afterId != null;
+    }
+
+    public Integer getAfterId() {
+        return afterId;
+    }
+
+    public String getAfterTitle() {
+        return afterTitle;
+    }
+
+    public Integer getAfterReleaseYear() {
+        return afterReleaseYear;
+    }
+
+    public double getAfterScore() {
+        return afterScore;
+    }
+}
@@ -15,6 +15,7 @@ public class Rating {
     private Instant createdAt;
     private boolean commentConfirmed;
     private final Set<Integer> likedByUserIds = new HashSet<>();
+    private Integer likeCount;
 
     public Rating() {
     }
@@ -117,12 +118,30 @@ public class Rating {
         }
     }
 
+    // Anzahl der Likes. Wurde nur die Anzahl geladen (ohne vollständige Liste), hat dieser Wert Vorrang;
+    // likedByUserIds enthält dann höchstens den anfragenden Benutzer.
+    public int getLikeCount() {
+        return likeCount != null ? likeCount : likedByUserIds.size();
+    }
+
+    public void setLikeCount(Integer likeCount) {
+        this.likeCount = likeCount;
+    }
+
     public boolean likeByUser(int userId) {
-        return likedByUserIds.add(userId);
+        boolean added = likedByUserIds.add(userId);
+        if (added && likeCount != null) {
+            likeCount++;
+        }
+        return added;
     }
 
     public boolean unlikeByUser(int userId) {
-        return likedByUserIds.remove(userId);
+        boolean removed = likedByUserIds.remove(userId);
+        if (removed && likeCount != null) {
+            likeCount--;
+        }
+        return removed;
     }
 
     @Override
@@ -0,0 +1,52 @@
+package org.SalimMRP.persistence.models;
+
+import java.time.Instant;
+
+// Blätterparameter für Rating-Listen, sortiert nach created_at DESC, id DESC.
+// Ohne includeLikedBy werden pro Rating nur die Like-Anzahl und das Like des anfragenden Benutzers geladen.
+public class RatingPageRequest {
+    private final int limit;
+    private final Instant beforeCreatedAt;
+    private final Integer beforeId;
+    private final boolean includeLikedBy;
+    private final int viewerUserId;
+
+    public RatingPageRequest(int limit,
+                             Instant beforeCreatedAt,
+                             Integer beforeId,
+                             boolean includeLikedBy,
+                             int viewerUserId) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        this.beforeCreatedAt = beforeCreatedAt;
+        this.beforeId = beforeId;
+        this.includeLikedBy = includeLikedBy;
+        this.viewerUserId = viewerUserId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Instant getBeforeCreatedAt() {
+        return beforeCreatedAt;
+    }
+
+    public Integer getBeforeId() {
+        return beforeId;
+    }
+
+    public boolean hasBefore() {
+        return beforeCreatedAt != null && beforeId != null;
+    }
+
+    public boolean isIncludeLikedBy() {
+        return includeLikedBy;
+    }
+
+    public int getViewerUserId() {
+        return viewerUserId;
+    }
+}
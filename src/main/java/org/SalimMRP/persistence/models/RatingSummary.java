@@ -1,15 +1,27 @@
 package org.SalimMRP.persistence.models;
 
+import java.util.Arrays;
+
 // Kapselt Aggregationswerte zu Ratings eines Media-Eintrags.
 public class RatingSummary {
     private final int mediaId;
     private final double averageScore;
     private final int ratingCount;
+    private final int[] starCounts;
 
     public RatingSummary(int mediaId, double averageScore, int ratingCount) {
+        this(mediaId, averageScore, ratingCount, new int[5]);
+    }
+
+    // starCounts[i] enthält die Anzahl der Ratings mit i + 1 Sternen.
+    public RatingSummary(int mediaId, double averageScore, int ratingCount, int[] starCounts) {
+        if (starCounts == null || starCounts.length != 5) {
+            throw new IllegalArgumentException("starCounts must contain five entries");
+        }
         this.mediaId = mediaId;
         this.averageScore = averageScore;
         this.ratingCount = ratingCount;
+        this.starCounts = starCounts.clone();
     }
 
     public int getMediaId() {
@@ -23,4 +35,15 @@ public class RatingSummary {
     public int getRatingCount() {
         return ratingCount;
     }
+
+    public int getStarCount(int stars) {
+        if (stars < 1 || stars > 5) {
+            throw new IllegalArgumentException("stars must be between 1 and 5");
+        }
+        return starCounts[stars - 1];
+    }
+
+    public int[] getStarCounts() {
+        return Arrays.copyOf(starCounts, starCounts.length);
+    }
 }
@@ -3,10 +3,16 @@ package org.SalimMRP.persistence.models;
 // Aggregiertes Ergebnis für Leaderboards: Anzahl der Ratings pro Benutzer.
 public class UserRatingCount {
     private final int userId;
+    private final String username;
     private final long ratingCount;
 
     public UserRatingCount(int userId, long ratingCount) {
+        this(userId, null, ratingCount);
+    }
+
+    public UserRatingCount(int userId, String username, long ratingCount) {
         this.userId = userId;
+        this.username = username;
         this.ratingCount = ratingCount;
     }
 
@@ -14,6 +20,11 @@ public class UserRatingCount {
         return userId;
     }
 
+    // null, wenn die Abfrage den Benutzernamen nicht mitliefert.
+    public String getUsername() {
+        return username;
+    }
+
     public long getRatingCount() {
         return ratingCount;
     }
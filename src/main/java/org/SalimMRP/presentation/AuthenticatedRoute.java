@@ -0,0 +1,12 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.SalimMRP.persistence.models.User;
+
+import java.io.IOException;
+
+// Ziel einer Route, die nur mit gültigem Token erreichbar ist.
+@FunctionalInterface
+interface AuthenticatedRoute {
+    void handle(HttpExchange exchange, PathParameters path, User user) throws IOException;
+}
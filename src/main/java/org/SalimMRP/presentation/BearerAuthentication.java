@@ -0,0 +1,40 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.SalimMRP.business.UserService;
+import org.SalimMRP.persistence.models.User;
+
+import java.io.IOException;
+
+// Gemeinsame Auswertung des Authorization-Headers für alle geschützten Endpunkte.
+// Die Auflösung Token -> Benutzer übernimmt UserService.authenticate inklusive Cache.
+final class BearerAuthentication {
+
+    private static final String PREFIX = "Bearer ";
+
+    private BearerAuthentication() {
+    }
+
+    // Liefert den Benutzer oder sendet selbst 401 und gibt null zurück.
+    static User authenticate(HttpExchange exchange, UserService userService, ResponseWriter responses) throws IOException {
+        String token = token(exchange);
+        if (token == null) {
+            responses.sendText(exchange, 401, "Missing or invalid Authorization header");
+            return null;
+        }
+        User user = userService.authenticate(token);
+        if (user == null) {
+            responses.sendText(exchange, 401, "Invalid or expired token");
+        }
+        return user;
+    }
+
+    static String token(HttpExchange exchange) {
+        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authHeader == null || !authHeader.startsWith(PREFIX)) {
+            return null;
+        }
+        String token = authHeader.substring(PREFIX.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
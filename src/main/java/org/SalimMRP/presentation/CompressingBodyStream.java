@@ -0,0 +1,95 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Response-Body, der erst ab einer Mindestgröße komprimiert: Bis zur Schwelle wird gepuffert.
+// Bleibt die Antwort darunter, geht sie unkomprimiert mit Content-Length raus; sonst werden die Header
+// mit Content-Encoding gesendet und der Rest wird gestreamt (chunked) durch den Kompressor geschrieben.
+final class CompressingBodyStream extends OutputStream {
+
+    private final HttpExchange exchange;
+    private final int statusCode;
+    private final ContentEncoding encoding;
+    private final int threshold;
+    private ByteArrayOutputStream buffer;
+    private OutputStream target;
+    private boolean closed;
+
+    CompressingBodyStream(HttpExchange exchange, int statusCode, ContentEncoding encoding, int threshold) {
+        this.exchange = exchange;
+        this.statusCode = statusCode;
+        this.encoding = encoding;
+        this.threshold = Math.max(1, threshold);
+        this.buffer = new ByteArrayOutputStream(Math.min(this.threshold, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (target != null) {
+            target.write(b);
+            return;
+        }
+        buffer.write(b);
+        if (buffer.size() >= threshold) {
+            startCompressed();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (target != null) {
+            target.write(b, off, len);
+            return;
+        }
+        buffer.write(b, off, len);
+        if (buffer.size() >= threshold) {
+            startCompressed();
+        }
+    }
+
+    // Solange noch gepuffert wird, gibt es nichts zu leeren; ein flush() würde sonst die Header festlegen.
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (target == null) {
+            sendUncompressed();
+            return;
+        }
+        target.close();
+    }
+
+    private void startCompressed() throws IOException {
+        exchange.getResponseHeaders().set("Content-Encoding", encoding.token());
+        String etag = exchange.getResponseHeaders().getFirst("ETag");
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", EntityTags.forEncoding(etag, encoding));
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
+        target = encoding.wrap(exchange.getResponseBody());
+        buffer.writeTo(target);
+        buffer = null;
+    }
+
+    private void sendUncompressed() throws IOException {
+        int length = buffer.size();
+        exchange.sendResponseHeaders(statusCode, length == 0 ? -1 : length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            buffer.writeTo(os);
+        }
+        buffer = null;
+    }
+}
@@ -0,0 +1,51 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.SalimMRP.persistence.ScopedConnectionProvider;
+
+import java.io.IOException;
+import java.util.Objects;
+
+// Legt um jede Anfrage einen Verbindungs-Scope: alle Repository-Aufrufe eines Handlers teilen sich eine
+// Verbindung. Der ResponseWriter gibt sie vor dem Schreiben der Antwort an den Pool zurück, damit langsame Clients
+// keine Verbindung blockieren; spätestens am Ende der Anfrage geschieht das hier. GET-Anfragen lesen optional
+// aus einem Snapshot.
+public class ConnectionScopeFilter extends Filter {
+
+    private static final String SCOPE_ATTRIBUTE = ConnectionScopeFilter.class.getName() + ".scope";
+
+    private final ScopedConnectionProvider connectionProvider;
+    private final boolean readOnlySnapshotsForGet;
+
+    public ConnectionScopeFilter(ScopedConnectionProvider connectionProvider, boolean readOnlySnapshotsForGet) {
+        this.connectionProvider = Objects.requireNonNull(connectionProvider, "connectionProvider must not be null");
+        this.readOnlySnapshotsForGet = readOnlySnapshotsForGet;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        boolean readOnly = readOnlySnapshotsForGet && "GET".equalsIgnoreCase(exchange.getRequestMethod());
+        exchange.setAttribute(SCOPE_ATTRIBUTE, connectionProvider.openScope(readOnly));
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            releaseConnection(exchange);
+        }
+    }
+
+    // Beendet den Scope der Anfrage vorzeitig; weitere Aufrufe (und Anfragen ohne Scope) bleiben wirkungslos.
+    // Repository-Aufrufe danach leihen sich wieder einzeln eine Verbindung.
+    static void releaseConnection(HttpExchange exchange) {
+        Object scope = exchange.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope instanceof ScopedConnectionProvider.ConnectionScope connectionScope) {
+            exchange.setAttribute(SCOPE_ATTRIBUTE, null);
+            connectionScope.close();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Shares one database connection per request";
+    }
+}
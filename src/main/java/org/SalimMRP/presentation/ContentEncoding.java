@@ -0,0 +1,87 @@
+package org.SalimMRP.presentation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Unterstützte Kompressionsverfahren für Antworten. "deflate" ist laut HTTP das zlib-Format,
+// also genau das, was DeflaterOutputStream mit Standard-Deflater schreibt.
+enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    String token() {
+        return token;
+    }
+
+    OutputStream wrap(OutputStream target) throws IOException {
+        return switch (this) {
+            case GZIP -> new GZIPOutputStream(target, BUFFER_SIZE);
+            case DEFLATE -> new DeflaterOutputStream(target, new Deflater(), BUFFER_SIZE, false) {
+                @Override
+                public void close() throws IOException {
+                    // Der eigene Deflater muss explizit freigegeben werden.
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        };
+    }
+
+    // Wertet Accept-Encoding inklusive q-Werten aus; bei Gleichstand wird gzip bevorzugt.
+    // Liefert null, wenn der Client keine der beiden Kodierungen akzeptiert.
+    static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, quality);
+                case "deflate" -> deflate = Math.max(deflate, quality);
+                case "*" -> wildcard = Math.max(wildcard, quality);
+                default -> {
+                }
+            }
+        }
+        if (gzip < 0) {
+            gzip = wildcard;
+        }
+        if (deflate < 0) {
+            deflate = wildcard;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+}
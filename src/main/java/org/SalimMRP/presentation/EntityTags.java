@@ -0,0 +1,49 @@
+package org.SalimMRP.presentation;
+
+import org.SalimMRP.persistence.models.DataVersion;
+
+// Bildet starke ETags aus Versionsständen der Datenbank und wertet If-None-Match aus.
+// Die Antworten hängen vom anfragenden Benutzer ab (Favoriten, eigene Likes), daher steht dessen ID im Tag.
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(String resource, int viewerId, DataVersion version) {
+        return "\"" + resource + ".u" + viewerId + "." + version.asToken() + "\"";
+    }
+
+    // Komprimierte Darstellungen bekommen ein eigenes Tag, z. B. "m42.u7.1.3-gzip".
+    static String forEncoding(String etag, ContentEncoding encoding) {
+        if (etag == null || etag.startsWith("W/") || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.token() + "\"";
+    }
+
+    // If-None-Match vergleicht schwach: W/-Präfix und Kodierungs-Suffix spielen keine Rolle.
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+        String expected = normalize(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || normalize(tag).equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String tag) {
+        String result = tag.startsWith("W/") ? tag.substring(2) : tag;
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            String suffix = "-" + encoding.token() + "\"";
+            if (result.endsWith(suffix)) {
+                return result.substring(0, result.length() - suffix.length()) + "\"";
+            }
+        }
+        return result;
+    }
+}
@@ -2,6 +2,7 @@ package org.SalimMRP.presentation;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.business.auth.PasswordHashingBusyException;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -29,7 +30,13 @@ class LoginHandler implements HttpHandler {
             return;
         }
 
-        String token = userController.getUserService().login(request.username, request.password);
+        String token;
+        try {
+            token = userController.getUserService().login(request.username, request.password);
+        } catch (PasswordHashingBusyException e) {
+            userController.sendBusyResponse(exchange);
+            return;
+        }
 
         if (token != null) {
             Map<String, String> response = new HashMap<>();
@@ -0,0 +1,28 @@
+package org.SalimMRP.presentation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+// Beendet die Sitzung: Das Token wird ungültig und verschwindet aus dem Authentifizierungs-Cache.
+class LogoutHandler implements HttpHandler {
+    private final UserController userController;
+
+    LogoutHandler(UserController userController) {
+        this.userController = userController;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+            userController.sendResponse(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        if (userController.authenticate(exchange) == null) {
+            return;
+        }
+        userController.getUserService().logout(BearerAuthentication.token(exchange));
+        userController.sendResponse(exchange, 204, "");
+    }
+}
@@ -1,29 +1,41 @@
 package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.MediaService;
 import org.SalimMRP.business.UserService;
 
+import java.util.List;
 import java.util.Objects;
 
 // Einstiegspunkt für alle Media-Endpunkte mit Referenzen auf Services und JSON-Mapper.
 public class MediaController {
 
     private final ObjectMapper mapper;
+    private final ResponseWriter responses;
     private final MediaService mediaService;
     private final UserService userService;
 
     public MediaController(MediaService mediaService, UserService userService, ObjectMapper mapper) {
+        this(mediaService, userService, new ResponseWriter(mapper));
+    }
+
+    public MediaController(MediaService mediaService, UserService userService, ResponseWriter responses) {
         this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
-        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responses = Objects.requireNonNull(responses, "responses must not be null");
+        this.mapper = responses.getMapper();
     }
 
     public ObjectMapper getMapper() {
         return mapper;
     }
 
+    public ResponseWriter getResponses() {
+        return responses;
+    }
+
     public MediaService getMediaService() {
         return mediaService;
     }
@@ -33,7 +45,12 @@ public class MediaController {
     }
 
     public void registerRoutes(HttpServer server) {
-        server.createContext("/api/media", new MediaHandler(this));
+        registerRoutes(server, List.of());
+    }
+
+    // Die Filter werden in der angegebenen Reihenfolge vor jeden Handler gesetzt.
+    public void registerRoutes(HttpServer server, List<Filter> filters) {
+        server.createContext("/api/media", new MediaHandler(this)).getFilters().addAll(filters);
     }
 
 }
@@ -2,28 +2,37 @@ package org.SalimMRP.presentation;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.business.InvalidCursorException;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.MediaPage;
 import org.SalimMRP.business.dto.MediaSearchCriteria;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 // Zentrale Handler-Klasse für alle /api/media-Anfragen inklusive Suche, Favoriten und Empfehlungen.
 class MediaHandler implements HttpHandler {
     private final MediaController mediaController;
+    private final Router<AuthenticatedRoute> routes;
 
     MediaHandler(MediaController mediaController) {
         this.mediaController = mediaController;
+        this.routes = Router.<AuthenticatedRoute>builder()
+                .route("GET", "/api/media", (exchange, path, user) -> handleSearch(exchange, user))
+                .route("POST", "/api/media", (exchange, path, user) -> handleCreate(exchange, user))
+                .route("GET", "/api/media/recommendations", (exchange, path, user) -> handleRecommendations(exchange, user))
+                .route("GET", "/api/media/{mediaId:id}", (exchange, path, user) -> handleGet(exchange, user, path.getId("mediaId")))
+                .route("PUT", "/api/media/{mediaId:id}", (exchange, path, user) -> handleUpdate(exchange, user, path.getId("mediaId")))
+                .route("DELETE", "/api/media/{mediaId:id}", (exchange, path, user) -> handleDelete(exchange, user, path.getId("mediaId")))
+                .route("POST", "/api/media/{mediaId:id}/favorites", (exchange, path, user) -> handleFavorites(exchange, "POST", user, path.getId("mediaId")))
+                .route("DELETE", "/api/media/{mediaId:id}/favorites", (exchange, path, user) -> handleFavorites(exchange, "DELETE", user, path.getId("mediaId")))
+                .build();
     }
 
     @Override
@@ -33,70 +42,41 @@ class MediaHandler implements HttpHandler {
             return;
         }
 
-        List<String> segments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
-                .filter(segment -> !segment.isBlank())
-                .toList();
-
-        if (segments.size() < 2
-                || !"api".equalsIgnoreCase(segments.get(0))
-                || !"media".equalsIgnoreCase(segments.get(1))) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        String method = exchange.getRequestMethod().toUpperCase();
-
-        if (segments.size() == 2) {
-            handleRoot(exchange, method, user);
-            return;
-        }
-
-        String third = segments.get(2);
-        if ("recommendations".equalsIgnoreCase(third)) {
-            handleRecommendations(exchange, method, user);
-            return;
-        }
-
-        Integer mediaId = parseId(third);
-        if (mediaId == null) {
-            sendResponse(exchange, 400, "Invalid media id");
-            return;
+        Router.Match<AuthenticatedRoute> match = routes.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+        switch (match.status()) {
+            case FOUND -> match.target().handle(exchange, match.parameters(), user);
+            case INVALID_PARAMETER -> sendResponse(exchange, 400, "Invalid " + match.invalidParameter());
+            case METHOD_NOT_ALLOWED -> sendResponse(exchange, 405, "Method not allowed");
+            case NOT_FOUND -> sendResponse(exchange, 404, "Not found");
         }
+    }
 
-        if (segments.size() == 3) {
-            handleSingleMedia(exchange, method, user, mediaId);
+    // Liefert eine Seite der Suchergebnisse; der Cursor für die nächste Seite steht im Header X-Next-Cursor.
+    // Das ETag entsteht aus der geladenen Seite selbst, damit die Suche nicht ein zweites Mal nur für den
+    // Versionsstand laufen muss; ein 304 spart dann Serialisierung und Übertragung.
+    private void handleSearch(HttpExchange exchange, User user) throws IOException {
+        MediaSearchCriteria criteria = buildCriteria(new QueryParameters(exchange.getRequestURI().getRawQuery()));
+        MediaPage page;
+        try {
+            page = mediaController.getMediaService().searchMediaPage(criteria, user.getId());
+        } catch (InvalidCursorException e) {
+            sendResponse(exchange, 400, "Invalid cursor");
             return;
         }
-
-        String action = segments.get(3).toLowerCase();
-        if ("favorites".equals(action)) {
-            handleFavorites(exchange, method, user, mediaId);
+        List<MediaResponse> response = page.getItems().stream()
+                .map(detail -> MediaResponse.from(detail, user.getId(), false))
+                .toList();
+        DataVersion version = DataVersion.of(page.hasMore() ? 1 : 0, mediaController.getResponses().fingerprint(response));
+        if (mediaController.getResponses().notModified(exchange, EntityTags.of("s", user.getId(), version))) {
             return;
         }
-
-        sendResponse(exchange, 404, "Not found");
-    }
-
-    private void handleRoot(HttpExchange exchange, String method, User user) throws IOException {
-        switch (method) {
-            case "GET" -> {
-                MediaSearchCriteria criteria = buildCriteria(exchange.getRequestURI().getQuery());
-                List<MediaDetails> details = mediaController.getMediaService().searchMedia(criteria, user.getId());
-                List<MediaResponse> response = details.stream()
-                        .map(detail -> MediaResponse.from(detail, user.getId(), false))
-                        .toList();
-                sendJsonResponse(exchange, 200, response);
-            }
-            case "POST" -> handleCreate(exchange, user);
-            default -> sendResponse(exchange, 405, "Method not allowed");
+        if (page.hasMore()) {
+            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
         }
+        sendJsonResponse(exchange, 200, response);
     }
 
-    private void handleRecommendations(HttpExchange exchange, String method, User user) throws IOException {
-        if (!"GET".equals(method)) {
-            sendResponse(exchange, 405, "Method not allowed");
-            return;
-        }
+    private void handleRecommendations(HttpExchange exchange, User user) throws IOException {
         List<MediaDetails> recommendations = mediaController.getMediaService().recommendMedia(user.getId());
         List<MediaResponse> response = recommendations.stream()
                 .map(detail -> MediaResponse.from(detail, user.getId(), false))
@@ -117,20 +97,18 @@ class MediaHandler implements HttpHandler {
         sendJsonResponse(exchange, 201, MediaResponse.from(details, user.getId(), true));
     }
 
-    private void handleSingleMedia(HttpExchange exchange, String method, User user, int mediaId) throws IOException {
-        switch (method) {
-            case "GET" -> {
-                MediaDetails details = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
-                if (details == null) {
-                    sendResponse(exchange, 404, "Media not found");
-                    return;
-                }
-                sendJsonResponse(exchange, 200, MediaResponse.from(details, user.getId(), true));
-            }
-            case "PUT" -> handleUpdate(exchange, user, mediaId);
-            case "DELETE" -> handleDelete(exchange, user, mediaId);
-            default -> sendResponse(exchange, 405, "Method not allowed");
+    // Polling-Clients schicken ihr ETag mit; solange sich nichts geändert hat, bleibt es beim 304.
+    private void handleGet(HttpExchange exchange, User user, int mediaId) throws IOException {
+        DataVersion version = mediaController.getMediaService().getMediaVersion(mediaId);
+        if (version != null && mediaController.getResponses().notModified(exchange, EntityTags.of("m" + mediaId, user.getId(), version))) {
+            return;
+        }
+        MediaDetails details = mediaController.getMediaService().getDetailedMedia(mediaId, user.getId());
+        if (details == null) {
+            sendResponse(exchange, 404, "Media not found");
+            return;
         }
+        sendJsonResponse(exchange, 200, MediaResponse.from(details, user.getId(), true));
     }
 
     private void handleUpdate(HttpExchange exchange, User user, int mediaId) throws IOException {
@@ -176,15 +154,9 @@ class MediaHandler implements HttpHandler {
     }
 
     private void handleFavorites(HttpExchange exchange, String method, User user, int mediaId) throws IOException {
-        boolean success;
-        switch (method) {
-            case "POST" -> success = mediaController.getMediaService().addFavorite(mediaId, user.getId());
-            case "DELETE" -> success = mediaController.getMediaService().removeFavorite(mediaId, user.getId());
-            default -> {
-                sendResponse(exchange, 405, "Method not allowed");
-                return;
-            }
-        }
+        boolean success = "POST".equals(method)
+                ? mediaController.getMediaService().addFavorite(mediaId, user.getId())
+                : mediaController.getMediaService().removeFavorite(mediaId, user.getId());
 
         if (!success) {
             sendResponse(exchange, 400, "Unable to update favorites");
@@ -194,116 +166,56 @@ class MediaHandler implements HttpHandler {
         sendJsonResponse(exchange, 200, MediaResponse.from(details, user.getId(), false));
     }
 
-    private MediaSearchCriteria buildCriteria(String query) {
-        Map<String, String> params = parseQuery(query);
+    private MediaSearchCriteria buildCriteria(QueryParameters params) {
         MediaSearchCriteria criteria = new MediaSearchCriteria();
 
-        if (params.containsKey("title")) {
+        if (params.has("title")) {
             criteria.setTitleQuery(params.get("title"));
         }
-        if (params.containsKey("mediatype")) {
-            criteria.setMediaType(params.get("mediatype"));
+        if (params.has("mediaType")) {
+            criteria.setMediaType(params.get("mediaType"));
         }
-        if (params.containsKey("genre")) {
+        if (params.has("genre")) {
             criteria.setGenre(params.get("genre"));
         }
-        if (params.containsKey("releaseyear")) {
-            try {
-                criteria.setReleaseYear(Integer.parseInt(params.get("releaseyear")));
-            } catch (NumberFormatException ignored) {
-            }
+        criteria.setReleaseYear(params.getInt("releaseYear"));
+        if (params.has("ageRestriction")) {
+            criteria.setAgeRestriction(params.get("ageRestriction"));
         }
-        if (params.containsKey("agerestriction")) {
-            criteria.setAgeRestriction(params.get("agerestriction"));
-        }
-        if (params.containsKey("minrating")) {
-            try {
-                criteria.setMinimumRating(Double.parseDouble(params.get("minrating")));
-            } catch (NumberFormatException ignored) {
-            }
-        }
-        if (params.containsKey("sort")) {
+        criteria.setMinimumRating(params.getDouble("minRating"));
+        if (params.has("sort")) {
             try {
                 criteria.setSortField(MediaSearchCriteria.SortField.valueOf(params.get("sort").toUpperCase()));
             } catch (IllegalArgumentException ignored) {
             }
         }
-        if (params.containsKey("direction")) {
+        if (params.has("direction")) {
             try {
                 criteria.setSortDirection(MediaSearchCriteria.SortDirection.valueOf(params.get("direction").toUpperCase()));
             } catch (IllegalArgumentException ignored) {
             }
         }
-        return criteria;
-    }
-
-    private Map<String, String> parseQuery(String query) {
-        Map<String, String> params = new HashMap<>();
-        if (query == null || query.isBlank()) {
-            return params;
+        criteria.setLimit(params.getInt("limit"));
+        if (params.has("cursor")) {
+            criteria.setCursor(params.get("cursor"));
         }
-        for (String part : query.split("&")) {
-            int idx = part.indexOf('=');
-            if (idx > 0) {
-                String key = decode(part.substring(0, idx));
-                String value = decode(part.substring(idx + 1));
-                params.put(key.toLowerCase(), value);
-            } else {
-                params.put(decode(part).toLowerCase(), "");
-            }
+        Integer offset = params.getInt("offset");
+        if (offset != null) {
+            criteria.setOffset(offset);
         }
-        return params;
-    }
-
-    private String decode(String value) {
-        return java.net.URLDecoder.decode(value, StandardCharsets.UTF_8);
+        return criteria;
     }
 
     private User requireUser(HttpExchange exchange) throws IOException {
-        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendResponse(exchange, 401, "Missing or invalid Authorization header");
-            return null;
-        }
-
-        String token = authHeader.substring("Bearer ".length()).trim();
-        if (!mediaController.getUserService().isTokenValid(token)) {
-            sendResponse(exchange, 401, "Invalid or expired token");
-            return null;
-        }
-
-        User user = mediaController.getUserService().getUserByToken(token);
-        if (user == null) {
-            sendResponse(exchange, 401, "Unknown user for token");
-        }
-        return user;
+        return BearerAuthentication.authenticate(exchange, mediaController.getUserService(), mediaController.getResponses());
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        byte[] body = message.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
+        mediaController.getResponses().sendText(exchange, statusCode, message);
     }
 
     private void sendJsonResponse(HttpExchange exchange, int statusCode, Object response) throws IOException {
-        String json = mediaController.getMapper().writeValueAsString(response);
-        byte[] body = json.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
-    }
-
-    private Integer parseId(String rawId) {
-        try {
-            return Integer.parseInt(rawId);
-        } catch (NumberFormatException ex) {
-            return null;
-        }
+        mediaController.getResponses().sendJson(exchange, statusCode, response);
     }
 
     private static class MediaResponse {
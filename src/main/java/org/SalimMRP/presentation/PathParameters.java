@@ -0,0 +1,47 @@
+package org.SalimMRP.presentation;
+
+import java.util.Arrays;
+
+// Werte der Platzhalter einer gefundenen Route; ID-Parameter sind bereits als positive Ganzzahl geprüft.
+final class PathParameters {
+
+    static final PathParameters EMPTY = new PathParameters(new String[0], new Object[0]);
+
+    private final String[] names;
+    private final Object[] values;
+
+    private PathParameters(String[] names, Object[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    PathParameters with(String name, Object value) {
+        String[] newNames = Arrays.copyOf(names, names.length + 1);
+        Object[] newValues = Arrays.copyOf(values, values.length + 1);
+        newNames[names.length] = name;
+        newValues[values.length] = value;
+        return new PathParameters(newNames, newValues);
+    }
+
+    String get(String name) {
+        Object value = find(name);
+        return value == null ? null : value.toString();
+    }
+
+    int getId(String name) {
+        Object value = find(name);
+        if (!(value instanceof Integer id)) {
+            throw new IllegalArgumentException("No id parameter named " + name);
+        }
+        return id;
+    }
+
+    private Object find(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+}
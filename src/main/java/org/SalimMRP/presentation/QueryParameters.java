@@ -0,0 +1,92 @@
+package org.SalimMRP.presentation;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Query-Parameter einer Anfrage. Der rohe Query-String wird erst beim ersten Zugriff zerlegt, und nur Teile
+// mit '%' oder '+' werden dekodiert. Schlüssel sind case-insensitiv; bei Mehrfachangaben gewinnt der letzte Wert.
+final class QueryParameters {
+
+    private final String rawQuery;
+    private Map<String, String> values;
+
+    QueryParameters(String rawQuery) {
+        this.rawQuery = rawQuery;
+    }
+
+    String get(String name) {
+        return parsed().get(name.toLowerCase(Locale.ROOT));
+    }
+
+    boolean has(String name) {
+        return parsed().containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    // null, wenn der Parameter fehlt oder keine Ganzzahl ist.
+    Integer getInt(String name) {
+        String value = get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    Double getDouble(String name) {
+        String value = get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Map<String, String> parsed() {
+        if (values != null) {
+            return values;
+        }
+        values = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return values;
+        }
+        int length = rawQuery.length();
+        int start = 0;
+        while (start <= length) {
+            int end = rawQuery.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int equals = rawQuery.indexOf('=', start);
+                if (equals < 0 || equals > end) {
+                    values.put(decode(start, end).toLowerCase(Locale.ROOT), "");
+                } else if (equals > start) {
+                    values.put(decode(start, equals).toLowerCase(Locale.ROOT), decode(equals + 1, end));
+                }
+            }
+            start = end + 1;
+        }
+        return values;
+    }
+
+    private String decode(int start, int end) {
+        String part = rawQuery.substring(start, end);
+        if (part.indexOf('%') < 0 && part.indexOf('+') < 0) {
+            return part;
+        }
+        try {
+            return URLDecoder.decode(part, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return part;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.RatingService;
 import org.SalimMRP.business.UserService;
 
+import java.util.List;
 import java.util.Objects;
 
 // Einstiegspunkt für Rating-bezogene Endpunkte.
@@ -13,11 +15,17 @@ public class RatingController {
     private final RatingService ratingService;
     private final UserService userService;
     private final ObjectMapper mapper;
+    private final ResponseWriter responses;
 
     public RatingController(RatingService ratingService, UserService userService, ObjectMapper mapper) {
+        this(ratingService, userService, new ResponseWriter(mapper));
+    }
+
+    public RatingController(RatingService ratingService, UserService userService, ResponseWriter responses) {
         this.ratingService = Objects.requireNonNull(ratingService, "ratingService must not be null");
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
-        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responses = Objects.requireNonNull(responses, "responses must not be null");
+        this.mapper = responses.getMapper();
     }
 
     public RatingService getRatingService() {
@@ -32,7 +40,16 @@ public class RatingController {
         return mapper;
     }
 
+    public ResponseWriter getResponses() {
+        return responses;
+    }
+
     public void registerRoutes(HttpServer server) {
-        server.createContext("/api/ratings", new RatingHandler(this));
+        registerRoutes(server, List.of());
+    }
+
+    // Die Filter werden in der angegebenen Reihenfolge vor jeden Handler gesetzt.
+    public void registerRoutes(HttpServer server, List<Filter> filters) {
+        server.createContext("/api/ratings", new RatingHandler(this)).getFilters().addAll(filters);
     }
 }
@@ -1,25 +1,36 @@
 package org.SalimMRP.presentation;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.business.InvalidCursorException;
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
 
 // Verarbeitet alle Anfragen zu /api/ratings, inklusive Likes und Moderation.
 class RatingHandler implements HttpHandler {
 
     private final RatingController ratingController;
+    private final Router<AuthenticatedRoute> routes;
 
     RatingHandler(RatingController ratingController) {
         this.ratingController = ratingController;
+        this.routes = Router.<AuthenticatedRoute>builder()
+                .route("GET", "/api/ratings/media/{mediaId:id}", (exchange, path, user) -> handleListRatings(exchange, path.getId("mediaId"), user))
+                .route("POST", "/api/ratings/media/{mediaId:id}", (exchange, path, user) -> handleCreateRating(exchange, path.getId("mediaId"), user))
+                .route("PUT", "/api/ratings/{ratingId:id}", (exchange, path, user) -> handleUpdateRating(exchange, path.getId("ratingId"), user))
+                .route("DELETE", "/api/ratings/{ratingId:id}", (exchange, path, user) -> handleDeleteRating(exchange, path.getId("ratingId"), user))
+                .route("POST", "/api/ratings/{ratingId:id}/confirm", (exchange, path, user) -> handleConfirmComment(exchange, path.getId("ratingId"), user))
+                .route("POST", "/api/ratings/{ratingId:id}/likes", (exchange, path, user) -> handleLike(exchange, path.getId("ratingId"), user))
+                .route("DELETE", "/api/ratings/{ratingId:id}/likes", (exchange, path, user) -> handleUnlike(exchange, path.getId("ratingId"), user))
+                .build();
     }
 
     @Override
@@ -29,82 +40,40 @@ class RatingHandler implements HttpHandler {
             return;
         }
 
-        String method = exchange.getRequestMethod().toUpperCase();
-        String path = exchange.getRequestURI().getPath();
-        String[] parts = path.split("/");
-
-        if (parts.length >= 4 && Objects.equals(parts[3], "media")) {
-            handleMediaScoped(exchange, method, parts, user);
-            return;
-        }
-
-        handleRatingScoped(exchange, method, parts, user);
-    }
-
-    private void handleMediaScoped(HttpExchange exchange, String method, String[] parts, User user) throws IOException {
-        if (parts.length < 5) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-        Integer mediaId = parsePositiveInt(parts[4]);
-        if (mediaId == null) {
-            sendResponse(exchange, 400, "Invalid media id");
-            return;
-        }
-
-        switch (method) {
-            case "GET" -> handleListRatings(exchange, mediaId, user);
-            case "POST" -> handleCreateRating(exchange, mediaId, user);
-            default -> sendResponse(exchange, 405, "Method not allowed");
+        Router.Match<AuthenticatedRoute> match = routes.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+        switch (match.status()) {
+            case FOUND -> match.target().handle(exchange, match.parameters(), user);
+            case INVALID_PARAMETER -> sendResponse(exchange, 400, "Invalid " + match.invalidParameter());
+            case METHOD_NOT_ALLOWED -> sendResponse(exchange, 405, "Method not allowed");
+            case NOT_FOUND -> sendResponse(exchange, 404, "Not found");
         }
     }
 
-    private void handleRatingScoped(HttpExchange exchange, String method, String[] parts, User user) throws IOException {
-        if (parts.length < 4) {
-            sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        Integer ratingId = parsePositiveInt(parts[3]);
-        if (ratingId == null) {
-            sendResponse(exchange, 400, "Invalid rating id");
-            return;
-        }
-
-        if (parts.length == 4) {
-            switch (method) {
-                case "PUT" -> handleUpdateRating(exchange, ratingId, user);
-                case "DELETE" -> handleDeleteRating(exchange, ratingId, user);
-                default -> sendResponse(exchange, 405, "Method not allowed");
-            }
-            return;
-        }
-
-        if (parts.length == 5 && Objects.equals(parts[4], "confirm") && "POST".equals(method)) {
-            handleConfirmComment(exchange, ratingId, user);
+    // Liefert eine Seite der Ratings (neueste zuerst); der Cursor für die nächste Seite steht im Header X-Next-Cursor.
+    private void handleListRatings(HttpExchange exchange, int mediaId, User user) throws IOException {
+        RatingListRequest request = buildListRequest(new QueryParameters(exchange.getRequestURI().getRawQuery()));
+        RatingPage page;
+        try {
+            page = ratingController.getRatingService().getRatingsForMedia(mediaId, request, user.getId());
+        } catch (InvalidCursorException e) {
+            sendResponse(exchange, 400, "Invalid cursor");
             return;
         }
-
-        if (parts.length == 5 && Objects.equals(parts[4], "likes")) {
-            if ("POST".equals(method)) {
-                handleLike(exchange, ratingId, user);
-                return;
-            }
-            if ("DELETE".equals(method)) {
-                handleUnlike(exchange, ratingId, user);
-                return;
-            }
+        List<RatingResponse> response = page.getItems().stream()
+                .map(r -> RatingResponse.from(r, user.getId(), request.isIncludeLikedBy()))
+                .toList();
+        if (page.hasMore()) {
+            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
         }
-
-        sendResponse(exchange, 404, "Not found");
+        sendJsonResponse(exchange, 200, response);
     }
 
-    private void handleListRatings(HttpExchange exchange, int mediaId, User user) throws IOException {
-        List<Rating> ratings = ratingController.getRatingService().getRatingsForMedia(mediaId);
-        List<RatingResponse> response = ratings.stream()
-                .map(r -> RatingResponse.from(r, user.getId()))
-                .toList();
-        sendJsonResponse(exchange, 200, response);
+    private RatingListRequest buildListRequest(QueryParameters params) {
+        RatingListRequest request = new RatingListRequest();
+        request.setLimit(params.getInt("limit"));
+        request.setCursor(params.get("cursor"));
+        request.setIncludeLikedBy("users".equalsIgnoreCase(params.get("likes")));
+        return request;
     }
 
     private void handleCreateRating(HttpExchange exchange, int mediaId, User user) throws IOException {
@@ -200,55 +169,15 @@ class RatingHandler implements HttpHandler {
     }
 
     private void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        byte[] body = message.getBytes(StandardCharsets.UTF_8);
-        exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
+        ratingController.getResponses().sendText(exchange, statusCode, message);
     }
 
     private void sendJsonResponse(HttpExchange exchange, int statusCode, Object payload) throws IOException {
-        byte[] body = toJson(payload);
-        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
-        exchange.sendResponseHeaders(statusCode, body.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(body);
-        }
-    }
-
-    private byte[] toJson(Object payload) throws JsonProcessingException {
-        String json = ratingController.getMapper().writeValueAsString(payload);
-        return json.getBytes(StandardCharsets.UTF_8);
+        ratingController.getResponses().sendJson(exchange, statusCode, payload);
     }
 
     private User requireUser(HttpExchange exchange) throws IOException {
-        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendResponse(exchange, 401, "Missing or invalid Authorization header");
-            return null;
-        }
-
-        String token = authHeader.substring("Bearer ".length()).trim();
-        if (!ratingController.getUserService().isTokenValid(token)) {
-            sendResponse(exchange, 401, "Invalid or expired token");
-            return null;
-        }
-
-        User user = ratingController.getUserService().getUserByToken(token);
-        if (user == null) {
-            sendResponse(exchange, 401, "Unknown user for token");
-        }
-        return user;
-    }
-
-    private Integer parsePositiveInt(String value) {
-        try {
-            int parsed = Integer.parseInt(value);
-            return parsed > 0 ? parsed : null;
-        } catch (NumberFormatException ex) {
-            return null;
-        }
+        return BearerAuthentication.authenticate(exchange, ratingController.getUserService(), ratingController.getResponses());
     }
 
     private static class RatingRequest {
@@ -271,8 +200,14 @@ class RatingHandler implements HttpHandler {
         public int likes;
         public boolean likedByCurrentUser;
         public boolean ownedByCurrentUser;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public Set<Integer> likedByUserIds;
 
         static RatingResponse from(Rating rating, int currentUserId) {
+            return from(rating, currentUserId, false);
+        }
+
+        static RatingResponse from(Rating rating, int currentUserId, boolean includeLikedBy) {
             RatingResponse response = new RatingResponse();
             response.id = rating.getId();
             response.mediaId = rating.getMediaId();
@@ -282,8 +217,9 @@ class RatingHandler implements HttpHandler {
             response.ownedByCurrentUser = rating.getUserId() == currentUserId;
             response.comment = response.ownedByCurrentUser || rating.isCommentConfirmed() ? rating.getComment() : null;
             response.createdAt = rating.getCreatedAt();
-            response.likes = rating.getLikedByUserIds().size();
+            response.likes = rating.getLikeCount();
             response.likedByCurrentUser = rating.getLikedByUserIds().contains(currentUserId);
+            response.likedByUserIds = includeLikedBy ? rating.getLikedByUserIds() : null;
             return response;
         }
     }
@@ -0,0 +1,148 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Gemeinsamer Antwort-Schreiber aller Controller. JSON wird über einen JsonGenerator direkt in den
+// Response-Body geschrieben (Chunked Transfer-Encoding), statt vorher als String und Byte-Array im Heap zu liegen.
+// Akzeptiert der Client gzip oder deflate, werden Antworten ab compressionThreshold Bytes komprimiert.
+// Vor dem Senden geht die Datenbankverbindung der Anfrage zurück an den Pool (siehe ConnectionScopeFilter).
+public class ResponseWriter {
+
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    private final ObjectMapper mapper;
+    private final int compressionThreshold;
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public ResponseWriter(ObjectMapper mapper) {
+        this(mapper, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    // compressionThreshold <= 0 schaltet die Kompression ab.
+    public ResponseWriter(ObjectMapper mapper, int compressionThreshold) {
+        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    // Sendet eine Text-Antwort; die Länge ist bekannt, daher ohne Chunking, sofern nicht komprimiert wird.
+    public void sendText(HttpExchange exchange, int statusCode, String message) throws IOException {
+        ConnectionScopeFilter.releaseConnection(exchange);
+        byte[] body = message == null ? new byte[0] : message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_CONTENT_TYPE);
+        if (body.length == 0) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            exchange.close();
+            return;
+        }
+        ContentEncoding encoding = negotiate(exchange);
+        if (encoding != null && body.length >= compressionThreshold) {
+            try (OutputStream os = new CompressingBodyStream(exchange, statusCode, encoding, compressionThreshold)) {
+                os.write(body);
+            }
+            return;
+        }
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    // Länge 0 bedeutet beim HttpServer Chunked Encoding: Große Listen werden stückweise geschrieben.
+    public void sendJson(HttpExchange exchange, int statusCode, Object payload) throws IOException {
+        ConnectionScopeFilter.releaseConnection(exchange);
+        ObjectWriter writer = writerFor(payload);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        ContentEncoding encoding = negotiate(exchange);
+        OutputStream body;
+        if (encoding != null) {
+            body = new CompressingBodyStream(exchange, statusCode, encoding, compressionThreshold);
+        } else {
+            exchange.sendResponseHeaders(statusCode, 0);
+            body = exchange.getResponseBody();
+        }
+        try (OutputStream os = body;
+             JsonGenerator generator = writer.getFactory().createGenerator(os, JsonEncoding.UTF8)) {
+            writer.writeValue(generator, payload);
+        } catch (IOException e) {
+            // Statuscode und Header sind bereits gesendet; die Verbindung wird mit unvollständigem Body beendet.
+            System.err.println("Error writing JSON response: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Setzt ETag und Cache-Control für eine lesende Antwort. Passt If-None-Match, wird direkt 304 ohne Body
+    // gesendet und true geliefert; der Aufrufer muss die eigentliche Antwort dann nicht mehr aufbauen.
+    public boolean notModified(HttpExchange exchange, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "private, no-cache");
+        if (compressionThreshold > 0) {
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        }
+        if (!EntityTags.matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            return false;
+        }
+        ConnectionScopeFilter.releaseConnection(exchange);
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
+    // Fingerabdruck der JSON-Darstellung für Antworten ohne eigenen Versionszähler. Der Body wird dafür nur
+    // durch einen Digest geschrieben, nicht zwischengespeichert.
+    public long fingerprint(Object payload) throws IOException {
+        ObjectWriter writer = writerFor(payload);
+        MessageDigest digest = sha256();
+        try (OutputStream os = new DigestOutputStream(OutputStream.nullOutputStream(), digest);
+             JsonGenerator generator = writer.getFactory().createGenerator(os, JsonEncoding.UTF8)) {
+            writer.writeValue(generator, payload);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Caches müssen wissen, dass die Antwort je nach Accept-Encoding unterschiedlich aussieht.
+    private ContentEncoding negotiate(HttpExchange exchange) {
+        if (compressionThreshold <= 0) {
+            return null;
+        }
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        return ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    // Ein ObjectWriter pro Antworttyp: Der Serializer für die Wurzel wird nur einmal aufgelöst.
+    ObjectWriter writerFor(Object payload) {
+        if (payload == null) {
+            return writers.computeIfAbsent(Void.class, type -> mapper.writer());
+        }
+        return writers.computeIfAbsent(payload.getClass(), mapper::writerFor);
+    }
+}
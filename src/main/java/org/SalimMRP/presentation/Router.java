@@ -0,0 +1,237 @@
+package org.SalimMRP.presentation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Vorkompilierte Routentabelle: Vorlagen wie "/api/media/{mediaId:id}/favorites" werden beim Start in einen
+// Trie übersetzt. Ein Lookup läuft einmal über den Pfad, ohne ihn zu zerlegen; Literale haben Vorrang vor Parametern
+// und werden ohne Beachtung der Groß-/Kleinschreibung verglichen.
+final class Router<T> {
+
+    enum Status {
+        FOUND,
+        NOT_FOUND,
+        METHOD_NOT_ALLOWED,
+        INVALID_PARAMETER
+    }
+
+    // STRING nimmt jedes Segment, ID nur positive Ganzzahlen.
+    private enum ParamType {
+        STRING,
+        ID
+    }
+
+    private final Node<T> root;
+
+    private Router(Node<T> root) {
+        this.root = root;
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    Match<T> match(String method, String path) {
+        Node<T> node = root;
+        PathParameters parameters = PathParameters.EMPTY;
+        int length = path.length();
+        int pos = 0;
+
+        while (true) {
+            while (pos < length && path.charAt(pos) == '/') {
+                pos++;
+            }
+            if (pos >= length) {
+                break;
+            }
+            int end = path.indexOf('/', pos);
+            if (end < 0) {
+                end = length;
+            }
+
+            Node<T> next = node.literal(path, pos, end);
+            if (next == null && node.param != null) {
+                next = node.param;
+                Object value;
+                if (next.paramType == ParamType.ID) {
+                    value = parseId(path, pos, end);
+                    if (value == null) {
+                        return Match.invalid(next.paramLabel);
+                    }
+                } else {
+                    value = path.substring(pos, end);
+                }
+                parameters = parameters.with(next.paramName, value);
+            }
+            if (next == null) {
+                return Match.notFound();
+            }
+            node = next;
+            pos = end;
+        }
+
+        if (node.handlers.isEmpty()) {
+            return Match.notFound();
+        }
+        T target = node.handlers.get(method.toUpperCase(Locale.ROOT));
+        if (target == null) {
+            return Match.methodNotAllowed(node.handlers.keySet());
+        }
+        return Match.found(target, parameters);
+    }
+
+    private static Integer parseId(String path, int start, int end) {
+        try {
+            int value = Integer.parseInt(path, start, end, 10);
+            return value > 0 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static final class Builder<T> {
+        private final Node<T> root = new Node<>();
+
+        private Builder() {
+        }
+
+        Builder<T> route(String method, String template, T target) {
+            Objects.requireNonNull(method, "method must not be null");
+            Objects.requireNonNull(template, "template must not be null");
+            Objects.requireNonNull(target, "target must not be null");
+
+            Node<T> node = root;
+            for (String segment : template.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                node = segment.startsWith("{") && segment.endsWith("}")
+                        ? node.paramChild(segment.substring(1, segment.length() - 1), template)
+                        : node.literalChild(segment.toLowerCase(Locale.ROOT));
+            }
+            String key = method.toUpperCase(Locale.ROOT);
+            if (node.handlers.putIfAbsent(key, target) != null) {
+                throw new IllegalArgumentException("Duplicate route " + key + " " + template);
+            }
+            return this;
+        }
+
+        Router<T> build() {
+            return new Router<>(root);
+        }
+    }
+
+    private static final class Node<T> {
+        private final List<String> literalKeys = new ArrayList<>();
+        private final List<Node<T>> literalNodes = new ArrayList<>();
+        private final Map<String, T> handlers = new HashMap<>();
+        private Node<T> param;
+        private String paramName;
+        private String paramLabel;
+        private ParamType paramType;
+
+        private Node<T> literal(String path, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literalKeys.size(); i++) {
+                String key = literalKeys.get(i);
+                if (key.length() == length && path.regionMatches(true, start, key, 0, length)) {
+                    return literalNodes.get(i);
+                }
+            }
+            return null;
+        }
+
+        private Node<T> literalChild(String key) {
+            int index = literalKeys.indexOf(key);
+            if (index >= 0) {
+                return literalNodes.get(index);
+            }
+            Node<T> child = new Node<>();
+            literalKeys.add(key);
+            literalNodes.add(child);
+            return child;
+        }
+
+        private Node<T> paramChild(String spec, String template) {
+            int colon = spec.indexOf(':');
+            String name = colon < 0 ? spec : spec.substring(0, colon);
+            ParamType type = colon < 0 ? ParamType.STRING : ParamType.valueOf(spec.substring(colon + 1).toUpperCase(Locale.ROOT));
+            if (param == null) {
+                param = new Node<>();
+                param.paramName = name;
+                param.paramLabel = labelFor(name);
+                param.paramType = type;
+            } else if (!param.paramName.equals(name) || param.paramType != type) {
+                throw new IllegalArgumentException("Conflicting path parameter in " + template);
+            }
+            return param;
+        }
+
+        // "mediaId" wird in Fehlermeldungen zu "media id".
+        private static String labelFor(String name) {
+            return name.replaceAll("([a-z])([A-Z])", "$1 $2").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final class Match<T> {
+        private static final Match<?> NOT_FOUND = new Match<>(Status.NOT_FOUND, null, PathParameters.EMPTY, null, Set.of());
+
+        private final Status status;
+        private final T target;
+        private final PathParameters parameters;
+        private final String invalidParameter;
+        private final Set<String> allowedMethods;
+
+        private Match(Status status, T target, PathParameters parameters, String invalidParameter, Set<String> allowedMethods) {
+            this.status = status;
+            this.target = target;
+            this.parameters = parameters;
+            this.invalidParameter = invalidParameter;
+            this.allowedMethods = allowedMethods;
+        }
+
+        private static <T> Match<T> found(T target, PathParameters parameters) {
+            return new Match<>(Status.FOUND, target, parameters, null, Set.of());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Match<T> notFound() {
+            return (Match<T>) NOT_FOUND;
+        }
+
+        private static <T> Match<T> invalid(String label) {
+            return new Match<>(Status.INVALID_PARAMETER, null, PathParameters.EMPTY, label, Set.of());
+        }
+
+        private static <T> Match<T> methodNotAllowed(Set<String> methods) {
+            return new Match<>(Status.METHOD_NOT_ALLOWED, null, PathParameters.EMPTY, null, new LinkedHashSet<>(methods));
+        }
+
+        Status status() {
+            return status;
+        }
+
+        T target() {
+            return target;
+        }
+
+        PathParameters parameters() {
+            return parameters;
+        }
+
+        // Lesbarer Name des ungültigen Parameters, z. B. "media id".
+        String invalidParameter() {
+            return invalidParameter;
+        }
+
+        Set<String> allowedMethods() {
+            return allowedMethods;
+        }
+    }
+}
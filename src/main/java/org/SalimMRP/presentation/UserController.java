@@ -2,6 +2,7 @@ package org.SalimMRP.presentation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import org.SalimMRP.business.MediaService;
 import org.SalimMRP.business.ProfileService;
@@ -9,14 +10,14 @@ import org.SalimMRP.business.UserService;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
 
 // Registriert die Benutzer-Endpunkte und stellt Hilfsfunktionen für Antworten bereit.
 public class UserController {
 
     private final ObjectMapper mapper;
+    private final ResponseWriter responses;
     private final UserService userService;
     private final ProfileService profileService;
     private final MediaService mediaService;
@@ -26,16 +27,28 @@ public class UserController {
                           ProfileService profileService,
                           MediaService mediaService,
                           ObjectMapper mapper) {
+        this(userService, profileService, mediaService, new ResponseWriter(mapper));
+    }
+
+    public UserController(UserService userService,
+                          ProfileService profileService,
+                          MediaService mediaService,
+                          ResponseWriter responses) {
         this.userService = Objects.requireNonNull(userService, "userService must not be null");
         this.profileService = Objects.requireNonNull(profileService, "profileService must not be null");
         this.mediaService = Objects.requireNonNull(mediaService, "mediaService must not be null");
-        this.mapper = Objects.requireNonNull(mapper, "mapper must not be null");
+        this.responses = Objects.requireNonNull(responses, "responses must not be null");
+        this.mapper = responses.getMapper();
     }
 
     public ObjectMapper getMapper() {
         return mapper;
     }
 
+    public ResponseWriter getResponses() {
+        return responses;
+    }
+
     public UserService getUserService() {
         return userService;
     }
@@ -49,47 +62,44 @@ public class UserController {
     }
 
     public void registerRoutes(HttpServer server) {
-        server.createContext("/api/users/register", new RegisterHandler(this));
-        server.createContext("/api/users/login", new LoginHandler(this));
-        server.createContext("/api/users", new UserHandler(this));
+        registerRoutes(server, List.of());
+    }
+
+    // Die Filter werden in der angegebenen Reihenfolge vor jeden Handler gesetzt.
+    public void registerRoutes(HttpServer server, List<Filter> filters) {
+        // Registrierung und Login warten auf den Hashing-Pool; sie dürfen dabei keine Verbindung aus dem Pool
+        // festhalten. Ohne Verbindungs-Scope leiht sich jeder Repository-Aufruf seine Verbindung nur kurz.
+        List<Filter> unscoped = withoutConnectionScope(filters);
+        server.createContext("/api/users/register", new RegisterHandler(this)).getFilters().addAll(unscoped);
+        server.createContext("/api/users/login", new LoginHandler(this)).getFilters().addAll(unscoped);
+        server.createContext("/api/users/logout", new LogoutHandler(this)).getFilters().addAll(filters);
+        server.createContext("/api/users", new UserHandler(this)).getFilters().addAll(filters);
+    }
+
+    private static List<Filter> withoutConnectionScope(List<Filter> filters) {
+        return filters.stream()
+                .filter(filter -> !(filter instanceof ConnectionScopeFilter))
+                .toList();
     }
 
     // Sendet eine Text-Antwort mit dem gewünschten Statuscode.
     public void sendResponse(HttpExchange exchange, int statusCode, String message) throws IOException {
-        exchange.sendResponseHeaders(statusCode, message.getBytes(StandardCharsets.UTF_8).length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(message.getBytes(StandardCharsets.UTF_8));
-        }
+        responses.sendText(exchange, statusCode, message);
+    }
+
+    // Der Hashing-Pool ist ausgelastet: Der Client soll es kurz darauf erneut versuchen.
+    public void sendBusyResponse(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        responses.sendText(exchange, 503, "Server is busy, please try again.");
     }
 
-    // Serialisiert ein Objekt nach JSON und setzt den passenden Content-Type.
+    // Serialisiert ein Objekt direkt in den Response-Body und setzt den passenden Content-Type.
     public void sendJsonResponse(HttpExchange exchange, int statusCode, Object response) throws IOException {
-        String json = mapper.writeValueAsString(response);
-        exchange.getResponseHeaders().add("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, json.getBytes(StandardCharsets.UTF_8).length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(json.getBytes(StandardCharsets.UTF_8));
-        }
+        responses.sendJson(exchange, statusCode, response);
     }
 
     // Prüft das Authorization-Header und gibt den zugehörigen Benutzer zurück.
     public User authenticate(HttpExchange exchange) throws IOException {
-        String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendResponse(exchange, 401, "Missing or invalid Authorization header");
-            return null;
-        }
-
-        String token = authHeader.substring("Bearer ".length()).trim();
-        if (!userService.isTokenValid(token)) {
-            sendResponse(exchange, 401, "Invalid or expired token");
-            return null;
-        }
-
-        User user = userService.getUserByToken(token);
-        if (user == null) {
-            sendResponse(exchange, 401, "Unknown user for token");
-        }
-        return user;
+        return BearerAuthentication.authenticate(exchange, userService, responses);
     }
 }
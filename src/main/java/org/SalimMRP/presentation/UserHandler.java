@@ -1,31 +1,41 @@
 package org.SalimMRP.presentation;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.SalimMRP.business.InvalidCursorException;
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.business.dto.UserProfile;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
 import org.SalimMRP.persistence.models.User;
 
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 // Behandelt geschützte /api/users-Anfragen (Profile, Favoriten, Leaderboard).
 class UserHandler implements HttpHandler {
 
     private final UserController userController;
+    private final Router<AuthenticatedRoute> routes;
 
     UserHandler(UserController userController) {
         this.userController = userController;
+        this.routes = Router.<AuthenticatedRoute>builder()
+                .route("GET", "/api/users/leaderboard", (exchange, path, user) -> handleLeaderboard(exchange))
+                .route("GET", "/api/users/{username}/profile", (exchange, path, user) -> ownResource(exchange, path, user, this::handleProfile))
+                .route("GET", "/api/users/{username}/ratings", (exchange, path, user) -> ownResource(exchange, path, user, this::handleRatings))
+                .route("GET", "/api/users/{username}/favorites", (exchange, path, user) -> ownResource(exchange, path, user, this::handleFavorites))
+                .build();
     }
 
     @Override
@@ -35,52 +45,31 @@ class UserHandler implements HttpHandler {
             return;
         }
 
-        List<String> segments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
-                .filter(segment -> !segment.isBlank())
-                .toList();
-
-        if (segments.size() < 2 || !"api".equalsIgnoreCase(segments.get(0)) || !"users".equalsIgnoreCase(segments.get(1))) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        if (segments.size() == 2) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        if ("leaderboard".equalsIgnoreCase(segments.get(2))) {
-            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                userController.sendResponse(exchange, 405, "Method Not Allowed");
-                return;
-            }
-            handleLeaderboard(exchange);
-            return;
+        Router.Match<AuthenticatedRoute> match = routes.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+        switch (match.status()) {
+            case FOUND -> match.target().handle(exchange, match.parameters(), authUser);
+            case INVALID_PARAMETER -> userController.sendResponse(exchange, 400, "Invalid " + match.invalidParameter());
+            case METHOD_NOT_ALLOWED -> userController.sendResponse(exchange, 405, "Method Not Allowed");
+            case NOT_FOUND -> userController.sendResponse(exchange, 404, "Not found");
         }
+    }
 
-        String requestedUser = decode(segments.get(2));
+    // Profil, Ratings und Favoriten sind nur für den eigenen Benutzer abrufbar.
+    private void ownResource(HttpExchange exchange,
+                             PathParameters path,
+                             User authUser,
+                             UserResource resource) throws IOException {
+        String requestedUser = path.get("username");
         if (!requestedUser.equalsIgnoreCase(authUser.getUsername())) {
             userController.sendResponse(exchange, 403, "You can only access your own profile");
             return;
         }
-
-        if (segments.size() == 3) {
-            userController.sendResponse(exchange, 404, "Not found");
-            return;
-        }
-
-        String resource = segments.get(3).toLowerCase();
-        switch (resource) {
-            case "profile" -> handleProfile(exchange, authUser);
-            case "ratings" -> handleRatings(exchange, authUser);
-            case "favorites" -> handleFavorites(exchange, authUser);
-            default -> userController.sendResponse(exchange, 404, "Not found");
-        }
+        resource.handle(exchange, authUser);
     }
 
     private void handleProfile(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
+        DataVersion version = userController.getProfileService().profileVersion(authUser.getId());
+        if (version != null && userController.getResponses().notModified(exchange, EntityTags.of("p", authUser.getId(), version))) {
             return;
         }
         UserProfile profile = userController.getProfileService().buildProfile(authUser.getId());
@@ -92,65 +81,48 @@ class UserHandler implements HttpHandler {
     }
 
     private void handleRatings(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
+        QueryParameters params = new QueryParameters(exchange.getRequestURI().getRawQuery());
+        RatingListRequest request = new RatingListRequest();
+        request.setLimit(params.getInt("limit"));
+        request.setCursor(params.get("cursor"));
+        request.setIncludeLikedBy("users".equalsIgnoreCase(params.get("likes")));
+
+        RatingPage page;
+        try {
+            page = userController.getProfileService().ratingHistory(authUser.getId(), request);
+        } catch (InvalidCursorException e) {
+            userController.sendResponse(exchange, 400, "Invalid cursor");
             return;
         }
 
-        List<Rating> ratings = userController.getProfileService().ratingHistory(authUser.getId());
         Map<Integer, Media> mediaCache = new HashMap<>();
         List<RatingHistoryResponse> response = new ArrayList<>();
-
-        for (Rating rating : ratings) {
+        for (Rating rating : page.getItems()) {
             Media media = mediaCache.computeIfAbsent(rating.getMediaId(), userController.getMediaService()::getMediaById);
             String title = media != null ? media.getTitle() : null;
-            response.add(RatingHistoryResponse.from(rating, title));
+            response.add(RatingHistoryResponse.from(rating, title, request.isIncludeLikedBy()));
+        }
+        if (page.hasMore()) {
+            exchange.getResponseHeaders().set("X-Next-Cursor", page.getNextCursor());
         }
         userController.sendJsonResponse(exchange, 200, response);
     }
 
     private void handleFavorites(HttpExchange exchange, User authUser) throws IOException {
-        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-            userController.sendResponse(exchange, 405, "Method Not Allowed");
-            return;
-        }
         List<MediaDetails> favorites = userController.getProfileService().favoriteMedia(authUser.getId());
         userController.sendJsonResponse(exchange, 200, favorites);
     }
 
     private void handleLeaderboard(HttpExchange exchange) throws IOException {
-        Map<String, String> params = parseQuery(exchange.getRequestURI().getQuery());
-        int limit = 10;
-        if (params.containsKey("limit")) {
-            try {
-                limit = Integer.parseInt(params.get("limit"));
-            } catch (NumberFormatException ignored) {
-            }
-        }
+        Integer requestedLimit = new QueryParameters(exchange.getRequestURI().getRawQuery()).getInt("limit");
+        int limit = requestedLimit != null ? requestedLimit : 10;
         List<LeaderboardEntry> entries = userController.getProfileService().leaderboard(limit);
         userController.sendJsonResponse(exchange, 200, entries);
     }
 
-    private Map<String, String> parseQuery(String query) {
-        Map<String, String> params = new HashMap<>();
-        if (query == null || query.isBlank()) {
-            return params;
-        }
-        for (String pair : query.split("&")) {
-            int idx = pair.indexOf('=');
-            if (idx > 0) {
-                String key = decode(pair.substring(0, idx));
-                String value = decode(pair.substring(idx + 1));
-                params.put(key.toLowerCase(), value);
-            } else {
-                params.put(decode(pair).toLowerCase(), "");
-            }
-        }
-        return params;
-    }
-
-    private String decode(String value) {
-        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    @FunctionalInterface
+    private interface UserResource {
+        void handle(HttpExchange exchange, User authUser) throws IOException;
     }
 
     private record RatingHistoryResponse(int id,
@@ -160,9 +132,11 @@ class UserHandler implements HttpHandler {
                                          String comment,
                                          boolean commentConfirmed,
                                          Instant createdAt,
-                                         int likes) {
+                                         int likes,
+                                         @JsonInclude(JsonInclude.Include.NON_NULL)
+                                         Set<Integer> likedByUserIds) {
 
-        static RatingHistoryResponse from(Rating rating, String mediaTitle) {
+        static RatingHistoryResponse from(Rating rating, String mediaTitle, boolean includeLikedBy) {
             return new RatingHistoryResponse(
                     rating.getId(),
                     rating.getMediaId(),
@@ -171,7 +145,8 @@ class UserHandler implements HttpHandler {
                     rating.getComment(),
                     rating.isCommentConfirmed(),
                     rating.getCreatedAt(),
-                    rating.getLikedByUserIds().size()
+                    rating.getLikeCount(),
+                    includeLikedBy ? rating.getLikedByUserIds() : null
             );
         }
     }
@@ -0,0 +1,36 @@
+-- Sekundärindizes für die häufigsten Abfragen (Rating-Listen, Likes, Favoriten, Mediensuche).
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Rating-Listen pro Medium und pro Benutzer werden nach created_at DESC, id DESC geblättert.
+CREATE INDEX IF NOT EXISTS idx_ratings_media_created
+    ON ratings (media_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_ratings_user_created
+    ON ratings (user_id, created_at DESC, id DESC);
+
+-- Die Primärschlüssel beginnen mit rating_id bzw. user_id; die Gegenrichtung braucht eigene Indizes.
+CREATE INDEX IF NOT EXISTS idx_rating_likes_user
+    ON rating_likes (user_id);
+CREATE INDEX IF NOT EXISTS idx_favorites_media
+    ON favorites (media_id);
+
+-- Teilstring-Suche auf dem Titel (LOWER(title) LIKE '%…%').
+CREATE INDEX IF NOT EXISTS idx_media_title_trgm
+    ON media USING GIN (LOWER(title) gin_trgm_ops);
+
+-- Genre-Filter vergleichen getrimmte, kleingeschriebene Werte; die Funktion macht das indexierbar.
+CREATE OR REPLACE FUNCTION mrp_normalize_genres(genres TEXT[])
+    RETURNS TEXT[]
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS $$
+    SELECT COALESCE(array_agg(LOWER(TRIM(g))), '{}'::TEXT[]) FROM unnest(genres) AS g
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_media_genres_normalized
+    ON media USING GIN (mrp_normalize_genres(genres));
+
+ANALYZE ratings;
+ANALYZE rating_likes;
+ANALYZE favorites;
+ANALYZE media;
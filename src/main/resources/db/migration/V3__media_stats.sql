@@ -0,0 +1,46 @@
+-- Vorberechnete Kennzahlen pro Medium. Die Repositories pflegen die Werte in derselben Transaktion
+-- wie die zugrunde liegende Änderung an ratings bzw. favorites; Lesezugriffe sind reine Schlüsselzugriffe.
+CREATE TABLE IF NOT EXISTS media_stats (
+    media_id INT PRIMARY KEY REFERENCES media(id) ON DELETE CASCADE,
+    rating_count INT NOT NULL DEFAULT 0,
+    star_sum BIGINT NOT NULL DEFAULT 0,
+    stars_1 INT NOT NULL DEFAULT 0,
+    stars_2 INT NOT NULL DEFAULT 0,
+    stars_3 INT NOT NULL DEFAULT 0,
+    stars_4 INT NOT NULL DEFAULT 0,
+    stars_5 INT NOT NULL DEFAULT 0,
+    favorite_count INT NOT NULL DEFAULT 0
+);
+
+-- Bestandsdaten einmalig übernehmen.
+INSERT INTO media_stats (media_id, rating_count, star_sum, stars_1, stars_2, stars_3, stars_4, stars_5, favorite_count)
+SELECT m.id,
+       COALESCE(r.rating_count, 0),
+       COALESCE(r.star_sum, 0),
+       COALESCE(r.stars_1, 0),
+       COALESCE(r.stars_2, 0),
+       COALESCE(r.stars_3, 0),
+       COALESCE(r.stars_4, 0),
+       COALESCE(r.stars_5, 0),
+       COALESCE(f.favorite_count, 0)
+  FROM media m
+  LEFT JOIN (
+      SELECT media_id,
+             COUNT(*) AS rating_count,
+             SUM(star_value) AS star_sum,
+             COUNT(*) FILTER (WHERE star_value = 1) AS stars_1,
+             COUNT(*) FILTER (WHERE star_value = 2) AS stars_2,
+             COUNT(*) FILTER (WHERE star_value = 3) AS stars_3,
+             COUNT(*) FILTER (WHERE star_value = 4) AS stars_4,
+             COUNT(*) FILTER (WHERE star_value = 5) AS stars_5
+        FROM ratings
+       GROUP BY media_id
+  ) r ON r.media_id = m.id
+  LEFT JOIN (
+      SELECT media_id, COUNT(*) AS favorite_count
+        FROM favorites
+       GROUP BY media_id
+  ) f ON f.media_id = m.id
+ON CONFLICT (media_id) DO NOTHING;
+
+ANALYZE media_stats;
@@ -0,0 +1,6 @@
+-- Versionszähler für bedingte GET-Anfragen (ETag / If-None-Match).
+-- media.version ändert sich mit dem Medium selbst, media_stats.version mit allem, was an dessen Ratings,
+-- Kommentaren, Likes und Favoriten hängt, users.data_version mit den eigenen Ratings und Favoriten.
+ALTER TABLE media ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE media_stats ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS data_version BIGINT NOT NULL DEFAULT 0;
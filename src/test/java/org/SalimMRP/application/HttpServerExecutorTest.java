@@ -0,0 +1,49 @@
+package org.SalimMRP.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpServerExecutorTest {
+
+    @Test
+    void inFlightCapMakesCallerWaitForAFreeSlot() throws Exception {
+        try (HttpServerExecutor executor = HttpServerExecutor.create(HttpServerExecutor.Mode.VIRTUAL, 0, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> awaitQuietly(release));
+
+            AtomicBoolean secondSubmitted = new AtomicBoolean();
+            Thread submitter = Thread.ofPlatform().start(() -> {
+                executor.execute(() -> { });
+                secondSubmitted.set(true);
+            });
+
+            submitter.join(200);
+            assertFalse(secondSubmitted.get());
+            assertEquals(1, executor.getInFlight());
+
+            release.countDown();
+            submitter.join(2000);
+            assertTrue(secondSubmitted.get());
+        }
+    }
+
+    @Test
+    void parsesModesCaseInsensitivelyWithFallback() {
+        assertEquals(HttpServerExecutor.Mode.PLATFORM, HttpServerExecutor.Mode.parse("Platform", HttpServerExecutor.Mode.VIRTUAL));
+        assertEquals(HttpServerExecutor.Mode.VIRTUAL, HttpServerExecutor.Mode.parse("bogus", HttpServerExecutor.Mode.VIRTUAL));
+        assertNull(HttpServerExecutor.create(HttpServerExecutor.Mode.DISPATCHER, 4, 10));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.MediaPage;
 import org.SalimMRP.business.dto.MediaSearchCriteria;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.MediaRepository;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
 import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
 import org.SalimMRP.persistence.models.RatingSummary;
+import org.SalimMRP.persistence.models.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 
@@ -25,8 +33,8 @@ class MediaServiceTest {
 
     @BeforeEach
     void setup() {
-        mediaRepository = new StubMediaRepository();
         ratingRepository = new StubRatingRepository();
+        mediaRepository = new StubMediaRepository(ratingRepository);
         favoriteRepository = new StubFavoriteRepository();
         mediaService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository);
     }
@@ -70,6 +78,77 @@ class MediaServiceTest {
         assertEquals(star.getId(), result.get(0).getMedia().getId());
     }
 
+    @Test
+    void searchMediaSortsByScoreAndHonoursLimitAndOffset() {
+        Media low = sampleMedia("Low", "Movie", 1);
+        Media mid = sampleMedia("Mid", "Movie", 1);
+        Media high = sampleMedia("High", "Movie", 1);
+        mediaRepository.save(low);
+        mediaRepository.save(mid);
+        mediaRepository.save(high);
+        ratingRepository.save(rating(low.getId(), 10, 1));
+        ratingRepository.save(rating(mid.getId(), 10, 3));
+        ratingRepository.save(rating(high.getId(), 10, 5));
+
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+        criteria.setMediaType("  MOVIE ");
+        criteria.setSortField(MediaSearchCriteria.SortField.SCORE);
+        criteria.setSortDirection(MediaSearchCriteria.SortDirection.DESC);
+        criteria.setLimit(2);
+        criteria.setOffset(1);
+
+        List<MediaDetails> result = mediaService.searchMedia(criteria, 99);
+        assertEquals(List.of("Mid", "Low"), result.stream().map(d -> d.getMedia().getTitle()).toList());
+    }
+
+    @Test
+    void searchMediaReturnsAllMatchesWithoutLimit() {
+        for (int i = 0; i < 60; i++) {
+            mediaRepository.save(sampleMedia("Title " + i, "Movie", 1));
+        }
+
+        assertEquals(60, mediaService.searchMedia(new MediaSearchCriteria(), 1).size());
+        assertEquals(50, mediaService.searchMediaPage(new MediaSearchCriteria(), 1).getItems().size());
+    }
+
+    @Test
+    void searchMediaPageWalksAllEntriesWithCursor() {
+        for (String title : List.of("Delta", "Alpha", "Echo", "Charlie", "Bravo")) {
+            mediaRepository.save(sampleMedia(title, "Movie", 1));
+        }
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+        criteria.setLimit(2);
+
+        List<String> titles = new ArrayList<>();
+        MediaPage page = mediaService.searchMediaPage(criteria, 1);
+        titles.addAll(page.getItems().stream().map(d -> d.getMedia().getTitle()).toList());
+        while (page.hasMore()) {
+            criteria.setCursor(page.getNextCursor());
+            page = mediaService.searchMediaPage(criteria, 1);
+            titles.addAll(page.getItems().stream().map(d -> d.getMedia().getTitle()).toList());
+        }
+
+        assertEquals(List.of("Alpha", "Bravo", "Charlie", "Delta", "Echo"), titles);
+    }
+
+    @Test
+    void searchMediaRejectsCursorFromDifferentSortOrder() {
+        for (String title : List.of("One", "Two", "Three")) {
+            mediaRepository.save(sampleMedia(title, "Movie", 1));
+        }
+        MediaSearchCriteria criteria = new MediaSearchCriteria();
+        criteria.setLimit(1);
+        String cursor = mediaService.searchMediaPage(criteria, 1).getNextCursor();
+        assertNotNull(cursor);
+
+        criteria.setSortField(MediaSearchCriteria.SortField.YEAR);
+        criteria.setCursor(cursor);
+        assertThrows(InvalidCursorException.class, () -> mediaService.searchMediaPage(criteria, 1));
+
+        criteria.setCursor("not-a-cursor");
+        assertThrows(InvalidCursorException.class, () -> mediaService.searchMediaPage(criteria, 1));
+    }
+
     @Test
     void updateMediaFailsWhenUnknown() {
         Media detached = sampleMedia("Unknown", "Movie", 5);
@@ -90,6 +169,26 @@ class MediaServiceTest {
         assertEquals(0, mediaService.listFavorites(7).size());
     }
 
+    @Test
+    void searchMediaLoadsFavoriteStateInBulk() {
+        Media first = sampleMedia("Alpha", "Movie", 1);
+        Media second = sampleMedia("Beta", "Movie", 1);
+        Media third = sampleMedia("Gamma", "Movie", 1);
+        mediaRepository.save(first);
+        mediaRepository.save(second);
+        mediaRepository.save(third);
+        favoriteRepository.addFavorite(7, second.getId());
+        favoriteRepository.addFavorite(8, second.getId());
+        favoriteRepository.addFavorite(8, third.getId());
+
+        List<MediaDetails> result = mediaService.searchMedia(new MediaSearchCriteria(), 7);
+
+        assertEquals(3, result.size());
+        assertEquals(List.of(0, 2, 1), result.stream().map(MediaDetails::getFavoritesCount).toList());
+        assertEquals(List.of(false, true, false), result.stream().map(MediaDetails::isFavoriteForUser).toList());
+        assertEquals(0, favoriteRepository.singleLookups, "details must not be assembled per media item");
+    }
+
     @Test
     void recommendationFallsBackToPopularWhenNoHistory() {
         Media first = sampleMedia("Popular One", "Game", 1);
@@ -105,6 +204,109 @@ class MediaServiceTest {
         assertEquals("Popular One", recommendations.get(0).getMedia().getTitle());
     }
 
+    @Test
+    void summaryStoreServesRatingAggregatesWithoutQueries() {
+        Media media = sampleMedia("Stored", "Movie", 1);
+        mediaRepository.save(media);
+        ratingRepository.save(rating(media.getId(), 1, 5));
+        ratingRepository.save(rating(media.getId(), 2, 3));
+        RatingSummaryStore store = new RatingSummaryStore(ratingRepository);
+        store.load();
+        MediaService cachedService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, store);
+        RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository, List.of(store));
+        int queriesAfterLoad = ratingRepository.summaryQueries;
+
+        assertEquals(4.0, cachedService.getDetailedMedia(media.getId(), 1).getAverageRating());
+
+        Rating third = ratingService.createRating(rating(media.getId(), 3, 1));
+        Rating changed = rating(media.getId(), 3, 4);
+        changed.setId(third.getId());
+        assertTrue(ratingService.updateRating(changed, 3));
+        MediaDetails details = cachedService.getDetailedMedia(media.getId(), 1);
+        assertEquals(3, details.getRatingCount());
+        assertEquals(4.0, details.getAverageRating());
+
+        assertTrue(ratingService.deleteRating(third.getId(), 3));
+        assertEquals(2, cachedService.searchMedia(new MediaSearchCriteria(), 1).get(0).getRatingCount());
+        assertEquals(queriesAfterLoad, ratingRepository.summaryQueries);
+    }
+
+    @Test
+    void searchCacheReusesPagesUntilCatalogChangesAndKeepsFavoritesFresh() {
+        Media alpha = sampleMedia("Alpha", "Movie", 1);
+        Media beta = sampleMedia("Beta", "Movie", 1);
+        mediaRepository.save(alpha);
+        mediaRepository.save(beta);
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+        MediaService cachedService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, null, cache, null);
+        RatingService ratingService = new DefaultRatingService(ratingRepository, mediaRepository, List.of(cache));
+        MediaSearchCriteria adventure = new MediaSearchCriteria();
+        adventure.setGenre("Adventure");
+        MediaSearchCriteria sameAdventure = new MediaSearchCriteria();
+        sameAdventure.setGenre("  ADVENTURE ");
+
+        cachedService.searchMedia(adventure, 7);
+        favoriteRepository.addFavorite(7, beta.getId());
+        List<MediaDetails> cached = cachedService.searchMedia(sameAdventure, 7);
+
+        assertEquals(1, mediaRepository.searchQueries);
+        assertEquals(List.of(false, true), cached.stream().map(MediaDetails::isFavoriteForUser).toList());
+        assertEquals(List.of(false, false), cachedService.searchMedia(adventure, 8).stream()
+                .map(MediaDetails::isFavoriteForUser).toList());
+        assertEquals(1, mediaRepository.searchQueries);
+
+        ratingService.createRating(rating(beta.getId(), 3, 5));
+        assertEquals(1, cachedService.searchMedia(adventure, 7).get(1).getRatingCount());
+        assertEquals(2, mediaRepository.searchQueries);
+
+        beta.setTitle("Aardvark");
+        assertTrue(cachedService.updateMedia(beta));
+        assertEquals("Aardvark", cachedService.searchMedia(adventure, 7).get(0).getMedia().getTitle());
+        assertEquals(3, mediaRepository.searchQueries);
+        assertEquals(2, cache.getStatistics().getHits());
+    }
+
+    @Test
+    void searchCacheKeepsFullListsAndPagesWithTheSameLimitApart() {
+        for (String title : List.of("Alpha", "Beta", "Gamma")) {
+            mediaRepository.save(sampleMedia(title, "Movie", 1));
+        }
+        SearchResultCache cache = new SearchResultCache(10, Duration.ofMinutes(1));
+        MediaService cachedService = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository, null, cache, null);
+        MediaSearchCriteria list = new MediaSearchCriteria();
+        list.setLimit(3);
+        MediaSearchCriteria page = new MediaSearchCriteria();
+        page.setLimit(2);
+
+        assertEquals(3, cachedService.searchMedia(list, 1).size());
+        MediaPage firstPage = cachedService.searchMediaPage(page, 1);
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(3, cachedService.searchMedia(list, 1).size());
+        assertEquals(2, mediaRepository.searchQueries);
+    }
+
+    @Test
+    void deletingRatedMediaRemovesItsRatingsFromTheLeaderboard() {
+        Media doomed = sampleMedia("Doomed", "Movie", 1);
+        Media kept = sampleMedia("Kept", "Movie", 1);
+        mediaRepository.save(doomed);
+        mediaRepository.save(kept);
+        ratingRepository.save(rating(doomed.getId(), 1, 5));
+        ratingRepository.save(rating(doomed.getId(), 2, 4));
+        ratingRepository.save(rating(kept.getId(), 2, 3));
+        RatingLeaderboard leaderboard = new RatingLeaderboard(ratingRepository, new StubUserRepository());
+        leaderboard.load();
+        MediaService service = new DefaultMediaService(mediaRepository, ratingRepository, favoriteRepository,
+                null, null, null, List.of(leaderboard));
+
+        assertTrue(service.deleteMedia(doomed.getId()));
+
+        List<LeaderboardEntry> entries = leaderboard.top(10);
+        assertEquals(List.of("user2"), entries.stream().map(LeaderboardEntry::getUsername).toList());
+        assertEquals(1, entries.get(0).getRatingCount());
+    }
+
     private Media sampleMedia(String title, String type, int creator) {
         Media media = new Media();
         media.setTitle(title);
@@ -132,7 +334,13 @@ class MediaServiceTest {
 
     private static class StubMediaRepository implements MediaRepository {
         private final Map<Integer, Media> storage = new HashMap<>();
+        private final StubRatingRepository ratings;
         private int nextId = 1;
+        private int searchQueries;
+
+        StubMediaRepository(StubRatingRepository ratings) {
+            this.ratings = ratings;
+        }
 
         @Override
         public boolean save(Media media) {
@@ -156,6 +364,64 @@ class MediaServiceTest {
             return clone(storage.get(id));
         }
 
+        @Override
+        public List<Media> findByIds(List<Integer> ids) {
+            return ids.stream()
+                    .map(this::findById)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        @Override
+        public List<Media> search(MediaFilter filter) {
+            searchQueries++;
+            Comparator<Media> order = switch (filter.getSortField()) {
+                case YEAR -> Comparator.comparing(Media::getReleaseYear);
+                case SCORE -> Comparator.comparingDouble(this::average);
+                case TITLE -> Comparator.comparing(Media::getTitle, String.CASE_INSENSITIVE_ORDER);
+            };
+            if (filter.isDescending()) {
+                order = order.reversed();
+            }
+            List<Media> sorted = storage.values().stream()
+                    .filter(m -> filter.getTitleQuery() == null
+                            || m.getTitle().toLowerCase().contains(filter.getTitleQuery()))
+                    .filter(m -> filter.getMediaType() == null
+                            || m.getMediaType().trim().toLowerCase().equals(filter.getMediaType()))
+                    .filter(m -> filter.getGenre() == null || m.getGenres().stream()
+                            .anyMatch(g -> g.trim().toLowerCase().equals(filter.getGenre())))
+                    .filter(m -> filter.getReleaseYear() == null
+                            || filter.getReleaseYear().equals(m.getReleaseYear()))
+                    .filter(m -> filter.getAgeRestriction() == null
+                            || m.getAgeRestriction().trim().toLowerCase().equals(filter.getAgeRestriction()))
+                    .filter(m -> filter.getMinimumRating() == null
+                            || (!ratings.findByMediaId(m.getId()).isEmpty() && average(m) >= filter.getMinimumRating()))
+                    .sorted(order.thenComparing(Media::getTitle, String.CASE_INSENSITIVE_ORDER))
+                    .toList();
+            int start = filter.getOffset();
+            if (filter.hasAfter()) {
+                // Vereinfachter Keyset: alles nach dem Eintrag mit der Cursor-ID.
+                start = sorted.stream().map(Media::getId).toList().indexOf(filter.getAfterId()) + 1;
+            }
+            return sorted.stream()
+                    .skip(start)
+                    .limit(filter.getLimit() == null ? Long.MAX_VALUE : filter.getLimit())
+                    .map(this::clone)
+                    .toList();
+        }
+
+        private double average(Media media) {
+            return ratings.findByMediaId(media.getId()).stream()
+                    .mapToInt(Rating::getStarValue)
+                    .average()
+                    .orElse(0.0);
+        }
+
+        @Override
+        public DataVersion findVersion(int id) {
+            return null;
+        }
+
         @Override
         public boolean update(Media media) {
             if (media == null || !storage.containsKey(media.getId())) {
@@ -165,8 +431,10 @@ class MediaServiceTest {
             return true;
         }
 
+        // Wie ON DELETE CASCADE: Die Ratings des Mediums verschwinden mit.
         @Override
         public boolean delete(int id) {
+            ratings.storage.values().removeIf(rating -> rating.getMediaId() == id);
             return storage.remove(id) != null;
         }
 
@@ -190,6 +458,7 @@ class MediaServiceTest {
     private static class StubRatingRepository implements RatingRepository {
         private final Map<Integer, Rating> storage = new HashMap<>();
         private int nextId = 1;
+        private int summaryQueries;
 
         @Override
         public Rating save(Rating rating) {
@@ -241,8 +510,26 @@ class MediaServiceTest {
                     .toList();
         }
 
+        @Override
+        public List<Rating> findByMediaId(int mediaId, RatingPageRequest page) {
+            return newestFirst(findByMediaId(mediaId), page);
+        }
+
+        @Override
+        public List<Rating> findByUserId(int userId, RatingPageRequest page) {
+            return newestFirst(findByUserId(userId), page);
+        }
+
+        private List<Rating> newestFirst(List<Rating> ratings, RatingPageRequest page) {
+            return ratings.stream()
+                    .sorted(Comparator.comparing(Rating::getCreatedAt).thenComparingInt(Rating::getId).reversed())
+                    .limit(page.getLimit())
+                    .toList();
+        }
+
         @Override
         public List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds) {
+            summaryQueries++;
             List<RatingSummary> summaries = new ArrayList<>();
             for (Integer id : mediaIds) {
                 List<Rating> ratings = findByMediaId(id);
@@ -250,14 +537,28 @@ class MediaServiceTest {
                     continue;
                 }
                 double avg = ratings.stream().mapToInt(Rating::getStarValue).average().orElse(0.0);
-                summaries.add(new RatingSummary(id, avg, ratings.size()));
+                int[] starCounts = new int[5];
+                ratings.forEach(rating -> starCounts[rating.getStarValue() - 1]++);
+                summaries.add(new RatingSummary(id, avg, ratings.size(), starCounts));
             }
             return summaries;
         }
 
+        @Override
+        public List<RatingSummary> summarizeAll() {
+            return summarizeByMediaIds(storage.values().stream()
+                    .map(Rating::getMediaId)
+                    .distinct()
+                    .toList());
+        }
+
         @Override
         public List<org.SalimMRP.persistence.models.UserRatingCount> findRatingCountsPerUser(int limit) {
-            return List.of();
+            Map<Integer, Long> counts = new TreeMap<>();
+            storage.values().forEach(rating -> counts.merge(rating.getUserId(), 1L, Long::sum));
+            return counts.entrySet().stream()
+                    .map(e -> new org.SalimMRP.persistence.models.UserRatingCount(e.getKey(), "user" + e.getKey(), e.getValue()))
+                    .toList();
         }
 
         @Override
@@ -305,8 +606,36 @@ class MediaServiceTest {
         }
     }
 
+    private static class StubUserRepository implements UserRepository {
+        @Override
+        public boolean save(User user) {
+            return false;
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            return null;
+        }
+
+        @Override
+        public User findById(int id) {
+            return new User(id, "user" + id, "pw");
+        }
+
+        @Override
+        public boolean updatePassword(int userId, String passwordHash) {
+            return false;
+        }
+
+        @Override
+        public DataVersion findProfileVersion(int userId) {
+            return null;
+        }
+    }
+
     private static class StubFavoriteRepository implements FavoriteRepository {
         private final Map<Integer, Set<Integer>> favorites = new HashMap<>();
+        private int singleLookups;
 
         @Override
         public boolean addFavorite(int userId, int mediaId) {
@@ -321,6 +650,7 @@ class MediaServiceTest {
 
         @Override
         public boolean isFavorite(int userId, int mediaId) {
+            singleLookups++;
             return favorites.getOrDefault(userId, Set.of()).contains(mediaId);
         }
 
@@ -331,6 +661,11 @@ class MediaServiceTest {
 
         @Override
         public int countFavoritesForMedia(int mediaId) {
+            singleLookups++;
+            return countFor(mediaId);
+        }
+
+        private int countFor(int mediaId) {
             int count = 0;
             for (Set<Integer> userFavorites : favorites.values()) {
                 if (userFavorites.contains(mediaId)) {
@@ -339,5 +674,24 @@ class MediaServiceTest {
             }
             return count;
         }
+
+        @Override
+        public Map<Integer, Integer> countFavoritesForMediaIds(List<Integer> mediaIds) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (Integer mediaId : mediaIds) {
+                int count = countFor(mediaId);
+                if (count > 0) {
+                    counts.put(mediaId, count);
+                }
+            }
+            return counts;
+        }
+
+        @Override
+        public Set<Integer> findFavoriteMediaIds(int userId, List<Integer> mediaIds) {
+            Set<Integer> result = new HashSet<>(favorites.getOrDefault(userId, Set.of()));
+            result.retainAll(mediaIds);
+            return result;
+        }
     }
 }
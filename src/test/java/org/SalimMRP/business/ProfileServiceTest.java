@@ -2,13 +2,18 @@ package org.SalimMRP.business;
 
 import org.SalimMRP.business.dto.LeaderboardEntry;
 import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.business.dto.MediaPage;
 import org.SalimMRP.business.dto.MediaSearchCriteria;
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.business.dto.UserProfile;
 import org.SalimMRP.persistence.FavoriteRepository;
 import org.SalimMRP.persistence.RatingRepository;
 import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
 import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
 import org.SalimMRP.persistence.models.RatingSummary;
 import org.SalimMRP.persistence.models.User;
 import org.SalimMRP.persistence.models.UserRatingCount;
@@ -71,6 +76,21 @@ class ProfileServiceTest {
         assertEquals(5, history.get(0).getMediaId());
     }
 
+    @Test
+    void ratingHistoryPageCapsSizeAndReturnsCursor() {
+        User user = new User("carol", "pw");
+        userRepository.save(user);
+        ratingRepository.addRating(rating(user.getId(), 5, 4));
+        ratingRepository.addRating(rating(user.getId(), 6, 3));
+
+        RatingListRequest request = new RatingListRequest();
+        request.setLimit(1);
+        RatingPage page = profileService.ratingHistory(user.getId(), request);
+
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.hasMore());
+    }
+
     @Test
     void leaderboardRespectsRequestedLimit() {
         ratingRepository.userCounts.put(1, 10L);
@@ -84,6 +104,29 @@ class ProfileServiceTest {
         assertEquals("top", entries.get(0).getUsername());
     }
 
+    @Test
+    void leaderboardFollowsRatingEventsWithoutRequerying() {
+        ratingRepository.userCounts.put(1, 2L);
+        ratingRepository.userCounts.put(2, 1L);
+        userRepository.save(new User("top", "pw"));
+        userRepository.save(new User("mid", "pw"));
+        User newcomer = new User("new", "pw");
+        userRepository.save(newcomer);
+        RatingLeaderboard leaderboard = new RatingLeaderboard(ratingRepository, userRepository);
+        profileService = new DefaultProfileService(userRepository, ratingRepository, favoriteRepository, mediaService, leaderboard);
+        assertEquals("top", profileService.leaderboard(3).get(0).getUsername());
+
+        leaderboard.ratingCreated(rating(2, 7, 4));
+        leaderboard.ratingCreated(rating(2, 8, 4));
+        leaderboard.ratingCreated(rating(newcomer.getId(), 7, 5));
+        leaderboard.ratingDeleted(rating(1, 7, 3));
+
+        List<LeaderboardEntry> entries = profileService.leaderboard(3);
+        assertEquals(List.of("mid", "top", "new"), entries.stream().map(LeaderboardEntry::getUsername).toList());
+        assertEquals(3, entries.get(0).getRatingCount());
+        assertEquals(1, ratingRepository.countQueries);
+    }
+
     @Test
     void favoriteMediaDelegatesToMediaService() {
         Media sample = mediaWithGenres(9, "Adventure");
@@ -140,11 +183,21 @@ class ProfileServiceTest {
             return found == null ? null : new User(found.getId(), found.getUsername(), found.getPassword());
         }
 
+        @Override
+        public DataVersion findProfileVersion(int userId) {
+            return null;
+        }
+
         @Override
         public User findById(int id) {
             User found = byId.get(id);
             return found == null ? null : new User(found.getId(), found.getUsername(), found.getPassword());
         }
+
+        @Override
+        public boolean updatePassword(int userId, String passwordHash) {
+            return false;
+        }
     }
 
     private static class StubRatingRepository implements RatingRepository {
@@ -154,6 +207,7 @@ class ProfileServiceTest {
         private final Map<Integer, Rating> byMediaUser = new HashMap<>();
         private final Map<Integer, Set<Integer>> likes = new HashMap<>();
         private final Map<Integer, Long> userCounts = new LinkedHashMap<>();
+        private int countQueries;
 
         void addRating(Rating rating) {
             save(rating);
@@ -206,16 +260,39 @@ class ProfileServiceTest {
                     .toList();
         }
 
+        @Override
+        public List<Rating> findByMediaId(int mediaId, RatingPageRequest page) {
+            return newestFirst(findByMediaId(mediaId), page);
+        }
+
+        @Override
+        public List<Rating> findByUserId(int userId, RatingPageRequest page) {
+            return newestFirst(findByUserId(userId), page);
+        }
+
+        private List<Rating> newestFirst(List<Rating> ratings, RatingPageRequest page) {
+            return ratings.stream()
+                    .sorted(Comparator.comparing(Rating::getCreatedAt).thenComparingInt(Rating::getId).reversed())
+                    .limit(page.getLimit())
+                    .toList();
+        }
+
         @Override
         public List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds) {
             return List.of();
         }
 
+        @Override
+        public List<RatingSummary> summarizeAll() {
+            return List.of();
+        }
+
         @Override
         public List<UserRatingCount> findRatingCountsPerUser(int limit) {
+            countQueries++;
             return userCounts.entrySet().stream()
                     .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-                    .limit(limit)
+                    .limit(limit > 0 ? limit : Long.MAX_VALUE)
                     .map(entry -> new UserRatingCount(entry.getKey(), entry.getValue()))
                     .toList();
         }
@@ -303,6 +380,25 @@ class ProfileServiceTest {
             }
             return count;
         }
+
+        @Override
+        public Map<Integer, Integer> countFavoritesForMediaIds(List<Integer> mediaIds) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (Integer mediaId : mediaIds) {
+                int count = countFavoritesForMedia(mediaId);
+                if (count > 0) {
+                    counts.put(mediaId, count);
+                }
+            }
+            return counts;
+        }
+
+        @Override
+        public Set<Integer> findFavoriteMediaIds(int userId, List<Integer> mediaIds) {
+            Set<Integer> result = new HashSet<>(favorites.getOrDefault(userId, Set.of()));
+            result.retainAll(mediaIds);
+            return result;
+        }
     }
 
     private static class StubMediaService implements MediaService {
@@ -339,6 +435,16 @@ class ProfileServiceTest {
             return List.of();
         }
 
+        @Override
+        public MediaPage searchMediaPage(MediaSearchCriteria criteria, int requestingUserId) {
+            return new MediaPage(List.of(), null);
+        }
+
+        @Override
+        public DataVersion getMediaVersion(int id) {
+            return null;
+        }
+
         @Override
         public MediaDetails getDetailedMedia(int id, int requestingUserId) {
             return null;
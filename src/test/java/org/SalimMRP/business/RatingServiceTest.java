@@ -1,9 +1,14 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.dto.RatingListRequest;
+import org.SalimMRP.business.dto.RatingPage;
 import org.SalimMRP.persistence.MediaRepository;
 import org.SalimMRP.persistence.RatingRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
 import org.SalimMRP.persistence.models.Rating;
+import org.SalimMRP.persistence.models.RatingPageRequest;
 import org.SalimMRP.persistence.models.RatingSummary;
 import org.SalimMRP.persistence.models.UserRatingCount;
 import org.junit.jupiter.api.BeforeEach;
@@ -71,6 +76,72 @@ class RatingServiceTest {
         assertTrue(ratingService.deleteRating(rating.getId(), 10));
     }
 
+    @Test
+    void listenersSeeSuccessfulWritesOnly() {
+        List<String> events = new ArrayList<>();
+        RatingEventListener listener = new RatingEventListener() {
+            @Override
+            public void ratingCreated(Rating rating) {
+                events.add("created:" + rating.getStarValue());
+            }
+
+            @Override
+            public void ratingUpdated(Rating rating, int previousStarValue) {
+                events.add("updated:" + previousStarValue + "->" + rating.getStarValue());
+            }
+
+            @Override
+            public void ratingDeleted(Rating rating) {
+                events.add("deleted:" + rating.getId());
+            }
+        };
+        ratingService = new DefaultRatingService(ratingRepository, mediaRepository, List.of(listener));
+        mediaRepository.store(sampleMedia(1));
+
+        Rating created = ratingService.createRating(sampleRating(0, 1, 10, 3));
+        ratingService.createRating(sampleRating(0, 1, 10, 4));
+        ratingService.updateRating(sampleRating(created.getId(), 1, 10, 5), 10);
+        ratingService.deleteRating(created.getId(), 99);
+        ratingService.deleteRating(created.getId(), 10);
+
+        assertEquals(List.of("created:3", "updated:3->5", "deleted:" + created.getId()), events);
+    }
+
+    @Test
+    void getRatingsForMediaPagesNewestFirstWithLikeCounts() {
+        mediaRepository.store(sampleMedia(1));
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 1; i <= 5; i++) {
+            Rating rating = ratingService.createRating(sampleRating(0, 1, 10 + i, 4));
+            rating.setCreatedAt(i == 5 ? base.plusSeconds(3) : base.plusSeconds(i));
+            ratingRepository.update(rating);
+            ratingRepository.addLike(rating.getId(), 99);
+        }
+
+        RatingListRequest request = new RatingListRequest();
+        request.setLimit(2);
+        List<Integer> seen = new ArrayList<>();
+        RatingPage page = ratingService.getRatingsForMedia(1, request, 99);
+        seen.addAll(page.getItems().stream().map(Rating::getId).toList());
+        while (page.hasMore()) {
+            request.setCursor(page.getNextCursor());
+            page = ratingService.getRatingsForMedia(1, request, 99);
+            seen.addAll(page.getItems().stream().map(Rating::getId).toList());
+        }
+
+        assertEquals(List.of(4, 5, 3, 2, 1), seen);
+        assertEquals(1, page.getItems().get(0).getLikeCount());
+        assertTrue(page.getItems().get(0).getLikedByUserIds().contains(99));
+    }
+
+    @Test
+    void getRatingsForMediaRejectsMalformedCursor() {
+        RatingListRequest request = new RatingListRequest();
+        request.setCursor("not-a-cursor");
+
+        assertThrows(IllegalArgumentException.class, () -> ratingService.getRatingsForMedia(1, request, 10));
+    }
+
     @Test
     void confirmCommentRequiresText() {
         mediaRepository.store(sampleMedia(1));
@@ -142,6 +213,24 @@ class RatingServiceTest {
             return storage.get(id);
         }
 
+        @Override
+        public List<Media> findByIds(List<Integer> ids) {
+            return ids.stream()
+                    .map(this::findById)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        @Override
+        public List<Media> search(MediaFilter filter) {
+            return List.copyOf(storage.values());
+        }
+
+        @Override
+        public DataVersion findVersion(int id) {
+            return null;
+        }
+
         @Override
         public boolean update(Media media) {
             storage.put(media.getId(), media);
@@ -217,11 +306,49 @@ class RatingServiceTest {
             return list;
         }
 
+        @Override
+        public List<Rating> findByMediaId(int mediaId, RatingPageRequest page) {
+            return page(findByMediaId(mediaId), page);
+        }
+
+        @Override
+        public List<Rating> findByUserId(int userId, RatingPageRequest page) {
+            return page(findByUserId(userId), page);
+        }
+
+        private List<Rating> page(List<Rating> ratings, RatingPageRequest page) {
+            Comparator<Rating> newestFirst = Comparator.comparing(Rating::getCreatedAt)
+                    .thenComparingInt(Rating::getId)
+                    .reversed();
+            return ratings.stream()
+                    .sorted(newestFirst)
+                    .filter(r -> !page.hasBefore() || r.getCreatedAt().isBefore(page.getBeforeCreatedAt())
+                            || (r.getCreatedAt().equals(page.getBeforeCreatedAt()) && r.getId() < page.getBeforeId()))
+                    .limit(page.getLimit())
+                    .peek(r -> {
+                        Set<Integer> likedBy = likes.getOrDefault(r.getId(), Set.of());
+                        if (page.isIncludeLikedBy()) {
+                            r.setLikedByUserIds(new HashSet<>(likedBy));
+                        } else if (likedBy.contains(page.getViewerUserId())) {
+                            r.likeByUser(page.getViewerUserId());
+                            r.setLikeCount(likedBy.size());
+                        } else {
+                            r.setLikeCount(likedBy.size());
+                        }
+                    })
+                    .toList();
+        }
+
         @Override
         public List<RatingSummary> summarizeByMediaIds(List<Integer> mediaIds) {
             return List.of();
         }
 
+        @Override
+        public List<RatingSummary> summarizeAll() {
+            return List.of();
+        }
+
         @Override
         public List<UserRatingCount> findRatingCountsPerUser(int limit) {
             return List.of();
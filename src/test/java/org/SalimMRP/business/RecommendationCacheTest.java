@@ -0,0 +1,114 @@
+package org.SalimMRP.business;
+
+import org.SalimMRP.business.dto.MediaDetails;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger computations = new AtomicInteger();
+    private final Semaphore computed = new Semaphore(0);
+
+    @Test
+    void servesCachedListAndRefreshesInBackgroundAfterOwnRating() throws Exception {
+        try (RecommendationCache cache = new RecommendationCache(10, Duration.ofMinutes(5), now::get)) {
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertEquals(1, computations.get());
+
+            Rating otherUsersRating = new Rating();
+            otherUsersRating.setUserId(8);
+            cache.ratingCreated(otherUsersRating);
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertEquals(1, computations.get());
+
+            Rating ownRating = new Rating();
+            ownRating.setUserId(7);
+            cache.ratingCreated(ownRating);
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertTrue(computed.tryAcquire(2, 5, TimeUnit.SECONDS));
+            assertEquals("run 2", awaitTitle(cache, "run 2"));
+        }
+    }
+
+    @Test
+    void expiredListsAreRefreshedOnceWhileTheOldOneIsServed() throws Exception {
+        try (RecommendationCache cache = new RecommendationCache(10, Duration.ofMinutes(5), now::get)) {
+            cache.get(7, this::recommend);
+            now.addAndGet(Duration.ofMinutes(6).toNanos());
+
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertTrue(computed.tryAcquire(2, 5, TimeUnit.SECONDS));
+            assertEquals("run 2", awaitTitle(cache, "run 2"));
+            assertEquals(2, computations.get());
+            assertEquals(0, cache.getStatistics().getEvictions());
+        }
+    }
+
+    @Test
+    void ratingWhileTheFirstListIsComputedMarksItStale() throws Exception {
+        try (RecommendationCache cache = new RecommendationCache(10, Duration.ofMinutes(5), now::get)) {
+            Rating ownRating = new Rating();
+            ownRating.setUserId(7);
+            assertEquals("run 1", title(cache.get(7, userId -> {
+                List<MediaDetails> result = recommend(userId);
+                cache.ratingCreated(ownRating);
+                return result;
+            })));
+
+            assertEquals("run 1", title(cache.get(7, this::recommend)));
+            assertTrue(computed.tryAcquire(2, 5, TimeUnit.SECONDS));
+            assertEquals("run 2", awaitTitle(cache, "run 2"));
+        }
+    }
+
+    @Test
+    void invalidateAllRefreshesEveryList() throws Exception {
+        try (RecommendationCache cache = new RecommendationCache(10, Duration.ofMinutes(5), now::get)) {
+            cache.get(7, this::recommend);
+            cache.get(8, this::recommend);
+
+            cache.invalidateAll();
+            cache.get(7, this::recommend);
+            cache.get(8, this::recommend);
+
+            assertTrue(computed.tryAcquire(4, 5, TimeUnit.SECONDS));
+            assertEquals(4, computations.get());
+        }
+    }
+
+    private List<MediaDetails> recommend(int userId) {
+        Media media = new Media();
+        media.setId(userId);
+        media.setTitle("run " + computations.incrementAndGet());
+        computed.release();
+        return List.of(MediaDetails.of(media, 0.0, 0, 0, false, List.of()));
+    }
+
+    // Die Hintergrundaktualisierung legt ihr Ergebnis kurz nach dem Berechnen ab.
+    private String awaitTitle(RecommendationCache cache, String expected) throws InterruptedException {
+        String title = null;
+        for (int attempt = 0; attempt < 100 && !expected.equals(title); attempt++) {
+            title = title(cache.get(7, this::recommend));
+            if (!expected.equals(title)) {
+                Thread.sleep(10);
+            }
+        }
+        return title;
+    }
+
+    private static String title(List<MediaDetails> recommendations) {
+        return recommendations.get(0).getMedia().getTitle();
+    }
+}
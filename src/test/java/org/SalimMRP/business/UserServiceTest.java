@@ -1,16 +1,20 @@
 package org.SalimMRP.business;
 
+import org.SalimMRP.business.auth.BCryptPasswordHasher;
 import org.SalimMRP.business.auth.InMemoryTokenService;
 import org.SalimMRP.business.auth.Sha256PasswordHasher;
 import org.SalimMRP.business.auth.TokenService;
 import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.DataVersion;
 import org.SalimMRP.persistence.models.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -79,10 +83,62 @@ class UserServiceTest {
         assertEquals("frank", loaded.getUsername());
     }
 
+    @Test
+    void authenticateCachesResolvedUserUntilTtlExpires() {
+        AtomicLong now = new AtomicLong();
+        UserService cached = new DefaultUserService(userRepository, new Sha256PasswordHasher(), tokenService,
+                Duration.ofSeconds(30), now::get);
+        cached.register(new User("gina", "pw"));
+        String token = cached.login("gina", "pw");
+        int lookupsAfterLogin = userRepository.lookups;
+
+        assertEquals("gina", cached.authenticate(token).getUsername());
+        assertEquals("gina", cached.authenticate(token).getUsername());
+        assertEquals(lookupsAfterLogin + 1, userRepository.lookups);
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertNotNull(cached.authenticate(token));
+        assertEquals(lookupsAfterLogin + 2, userRepository.lookups);
+    }
+
+    @Test
+    void logoutInvalidatesTokenAndCachedUser() {
+        userService.register(new User("hank", "pw"));
+        String token = userService.login("hank", "pw");
+        assertNotNull(userService.authenticate(token));
+
+        userService.logout(token);
+
+        assertFalse(userService.isTokenValid(token));
+        assertNull(userService.authenticate(token));
+        assertNull(userService.authenticate("unknown-token"));
+    }
+
+    @Test
+    void loginUpgradesLegacyHashesToBCrypt() {
+        userService.register(new User("iris", "pw"));
+        String legacyHash = userRepository.findRaw("iris").orElseThrow().getPassword();
+
+        try (BCryptPasswordHasher bcrypt = new BCryptPasswordHasher(4, 1, 4, new Sha256PasswordHasher())) {
+            UserService upgrading = new DefaultUserService(userRepository, bcrypt, tokenService);
+
+            assertNull(upgrading.login("iris", "wrong"));
+            assertEquals(legacyHash, userRepository.findRaw("iris").orElseThrow().getPassword());
+
+            assertNotNull(upgrading.login("iris", "pw"));
+            String upgradedHash = userRepository.findRaw("iris").orElseThrow().getPassword();
+            assertTrue(upgradedHash.startsWith("$2a$04$"));
+            assertFalse(bcrypt.needsRehash(upgradedHash));
+            assertNotNull(upgrading.login("iris", "pw"));
+            assertEquals(upgradedHash, userRepository.findRaw("iris").orElseThrow().getPassword());
+        }
+    }
+
     private static class RecordingUserRepository implements UserRepository {
         private final Map<Integer, User> byId = new HashMap<>();
         private final Map<String, User> byName = new HashMap<>();
         private int nextId = 1;
+        private int lookups;
 
         @Override
         public boolean save(User user) {
@@ -98,14 +154,30 @@ class UserServiceTest {
 
         @Override
         public User findByUsername(String username) {
+            lookups++;
             return clone(byName.get(username));
         }
 
+        @Override
+        public DataVersion findProfileVersion(int userId) {
+            return null;
+        }
+
         @Override
         public User findById(int id) {
             return clone(byId.get(id));
         }
 
+        @Override
+        public boolean updatePassword(int userId, String passwordHash) {
+            User stored = byId.get(userId);
+            if (stored == null) {
+                return false;
+            }
+            stored.setPassword(passwordHash);
+            return true;
+        }
+
         Optional<User> findRaw(String username) {
             return Optional.ofNullable(byName.get(username));
         }
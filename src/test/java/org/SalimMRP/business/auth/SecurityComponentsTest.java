@@ -2,6 +2,15 @@ package org.SalimMRP.business.auth;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SecurityComponentsTest {
@@ -17,6 +26,28 @@ class SecurityComponentsTest {
         assertFalse(hasher.matches("wrong", hash));
     }
 
+    @Test
+    void bcryptHasherVerifiesOwnAndLegacyHashes() {
+        try (BCryptPasswordHasher bcrypt = new BCryptPasswordHasher(5, 2, 8, hasher)) {
+            String hash = bcrypt.hash("Tr0ub4dor&3");
+            String longPassword = "x".repeat(100);
+            String longHash = bcrypt.hash(longPassword);
+
+            assertTrue(bcrypt.matches("Tr0ub4dor&3", hash));
+            assertFalse(bcrypt.matches("wrong", hash));
+            assertTrue(bcrypt.matches(longPassword, longHash));
+            assertFalse(bcrypt.matches("x".repeat(99), longHash));
+            assertTrue(bcrypt.matches("Tr0ub4dor&3", hasher.hash("Tr0ub4dor&3")));
+
+            assertFalse(bcrypt.needsRehash(hash));
+            assertTrue(bcrypt.needsRehash(hasher.hash("Tr0ub4dor&3")));
+            try (BCryptPasswordHasher stronger = new BCryptPasswordHasher(6, 1, 8, hasher)) {
+                assertTrue(stronger.needsRehash(hash));
+                assertTrue(stronger.matches("Tr0ub4dor&3", hash));
+            }
+        }
+    }
+
     @Test
     void tokenServiceIssuesUniqueAndResolvableTokens() {
         String first = tokenService.issueToken("alice");
@@ -27,4 +58,128 @@ class SecurityComponentsTest {
         tokenService.invalidate(first);
         assertFalse(tokenService.isValid(first));
     }
+
+    @Test
+    void hmacTokensAreVerifiableAcrossInstancesWithTheSameSecret() {
+        byte[] secret = HmacTokenService.randomSecret();
+        TokenService issuer = new HmacTokenService(secret, Duration.ofHours(1));
+        TokenService otherNode = new HmacTokenService(secret, Duration.ofHours(1));
+        TokenService foreign = new HmacTokenService(HmacTokenService.randomSecret(), Duration.ofHours(1));
+
+        String token = issuer.issueToken(7, "bob:with:colons");
+
+        assertTrue(otherNode.isValid(token));
+        assertEquals("bob:with:colons", otherNode.resolveUsername(token));
+        assertFalse(foreign.isValid(token));
+        assertNotEquals(token, issuer.issueToken(7, "bob:with:colons"));
+    }
+
+    @Test
+    void hmacTokensRejectTamperingExpiryAndRevocation() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        HmacTokenService service = new HmacTokenService(HmacTokenService.randomSecret(), Duration.ofMinutes(10), clock);
+        String token = service.issueToken(1, "alice");
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1:9999999999:x:admin".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(service.isValid(parts[0] + "." + forgedPayload + "." + parts[2]));
+        assertFalse(service.isValid(token + "x"));
+        assertFalse(service.isValid("garbage"));
+
+        String revoked = service.issueToken(1, "alice");
+        service.invalidate(revoked);
+        assertFalse(service.isValid(revoked));
+        assertTrue(service.isValid(token));
+
+        clock.advance(Duration.ofMinutes(11));
+        assertFalse(service.isValid(token));
+    }
+
+    @Test
+    void inMemoryTokensExpireAfterIdleAndAbsoluteTimeouts() {
+        AtomicLong nanos = new AtomicLong(-5_000_000_000L);
+        InMemoryTokenService service = new InMemoryTokenService(
+                Duration.ofMinutes(30), Duration.ofMinutes(10), 10, nanos::get);
+        String active = service.issueToken("alice");
+        String idle = service.issueToken("bob");
+
+        nanos.addAndGet(Duration.ofMinutes(8).toNanos());
+        assertTrue(service.isValid(active));
+        nanos.addAndGet(Duration.ofMinutes(8).toNanos());
+        assertTrue(service.isValid(active));
+        assertFalse(service.isValid(idle));
+
+        for (int i = 0; i < 2; i++) {
+            nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+            assertTrue(service.isValid(active));
+        }
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertFalse(service.isValid(active));
+
+        TokenStatistics statistics = service.getStatistics();
+        assertEquals(0, statistics.getLiveTokens());
+        assertEquals(2, statistics.getIssuedTokens());
+        assertEquals(2, statistics.getExpiredTokens());
+    }
+
+    @Test
+    void inMemoryTokensAreSweptWithoutBeingLookedUp() {
+        AtomicLong nanos = new AtomicLong();
+        InMemoryTokenService service = new InMemoryTokenService(
+                Duration.ofHours(1), Duration.ofMinutes(1), 10, nanos::get);
+        for (int i = 0; i < 100; i++) {
+            service.issueToken("user" + i);
+        }
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        String fresh = service.issueToken("carol");
+
+        assertEquals(1, service.getStatistics().getLiveTokens());
+        assertEquals(100, service.getStatistics().getExpiredTokens());
+        assertTrue(service.isValid(fresh));
+    }
+
+    @Test
+    void inMemoryTokensEvictTheOldestTokenBeyondThePerUserCap() {
+        InMemoryTokenService service = new InMemoryTokenService(Duration.ofHours(1), Duration.ofHours(1), 2);
+        String first = service.issueToken("alice");
+        String second = service.issueToken("alice");
+        String third = service.issueToken("alice");
+        String other = service.issueToken("bob");
+
+        assertFalse(service.isValid(first));
+        assertTrue(service.isValid(second));
+        assertTrue(service.isValid(third));
+        assertTrue(service.isValid(other));
+        assertEquals(3, service.getStatistics().getLiveTokens());
+        assertEquals(1, service.getStatistics().getEvictedTokens());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
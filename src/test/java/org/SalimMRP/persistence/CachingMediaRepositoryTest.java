@@ -0,0 +1,114 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.Media;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingMediaRepositoryTest {
+
+    private final RecordingMediaRepository database = new RecordingMediaRepository();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void repeatedReadsAreServedFromMemoryAsCopies() {
+        database.store(media(1, "Alien"));
+        CachingMediaRepository cache = new CachingMediaRepository(database, 10, Duration.ofMinutes(5), now::get);
+
+        Media first = cache.findById(1);
+        first.setTitle("changed by caller");
+        Media second = cache.findById(1);
+
+        assertEquals("Alien", second.getTitle());
+        assertEquals(1, database.singleLookups);
+        assertEquals(1, cache.getStatistics().getHits());
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    void updateAndDeleteInvalidateTheCachedEntry() {
+        database.store(media(1, "Alien"));
+        CachingMediaRepository cache = new CachingMediaRepository(database, 10, Duration.ofMinutes(5), now::get);
+        cache.findById(1);
+
+        cache.update(media(1, "Aliens"));
+        assertEquals("Aliens", cache.findById(1).getTitle());
+
+        cache.delete(1);
+        assertNull(cache.findById(1));
+        assertEquals(3, database.singleLookups);
+    }
+
+    @Test
+    void readsFromASnapshotOlderThanTheLastWriteAreNotCached() {
+        database.store(media(1, "Alien"));
+        AtomicLong snapshotStart = new AtomicLong(Long.MAX_VALUE);
+        CachingMediaRepository cache = new CachingMediaRepository(database, 10, Duration.ofMinutes(5), now::get,
+                snapshotStart::get);
+
+        // Der GET-Snapshot beginnt, danach wird geändert; der Snapshot sieht noch den alten Titel.
+        snapshotStart.set(now.incrementAndGet());
+        now.incrementAndGet();
+        cache.update(media(1, "Aliens"));
+        database.store(media(1, "Alien"));
+        now.incrementAndGet();
+        assertEquals("Alien", cache.findById(1).getTitle());
+
+        // Ein später begonnener Snapshot darf wieder ablegen.
+        database.store(media(1, "Aliens"));
+        snapshotStart.set(now.incrementAndGet());
+        assertEquals("Aliens", cache.findById(1).getTitle());
+        snapshotStart.set(Long.MAX_VALUE);
+        assertEquals("Aliens", cache.findById(1).getTitle());
+        assertEquals(2, database.singleLookups);
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedAndStaleEntriesExpire() {
+        for (int id = 1; id <= 3; id++) {
+            database.store(media(id, "Title " + id));
+        }
+        CachingMediaRepository cache = new CachingMediaRepository(database, 2, Duration.ofMinutes(5), now::get);
+        cache.findById(1);
+        cache.findById(2);
+        cache.findById(1);
+        cache.findById(3);
+
+        assertEquals(1, cache.getStatistics().getEvictions());
+        int lookups = database.singleLookups;
+        cache.findById(1);
+        assertEquals(lookups, database.singleLookups);
+        cache.findById(2);
+        assertEquals(lookups + 1, database.singleLookups);
+
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+        cache.findById(2);
+        assertEquals(lookups + 2, database.singleLookups);
+    }
+
+    @Test
+    void findByIdsLoadsOnlyMissingEntriesInOneCallAndKeepsOrder() {
+        for (int id = 1; id <= 4; id++) {
+            database.store(media(id, "Title " + id));
+        }
+        CachingMediaRepository cache = new CachingMediaRepository(database, 10, Duration.ofMinutes(5), now::get);
+        cache.findById(2);
+
+        List<Media> result = cache.findByIds(List.of(3, 2, 99, 1, 3));
+
+        assertEquals(List.of(3, 2, 1), result.stream().map(Media::getId).toList());
+        assertEquals(List.of(List.of(3, 99, 1)), database.bulkLookups);
+        assertEquals(List.of(4, 1), cache.findByIds(List.of(4, 1)).stream().map(Media::getId).toList());
+        assertEquals(List.of(4), database.bulkLookups.get(1));
+    }
+
+    private static Media media(int id, String title) {
+        Media media = new Media(title, "desc", "movie", 1979, "16", List.of("sci-fi"), 1);
+        media.setId(id);
+        return media;
+    }
+}
@@ -0,0 +1,79 @@
+package org.SalimMRP.persistence;
+
+import org.SalimMRP.persistence.models.DataVersion;
+import org.SalimMRP.persistence.models.Media;
+import org.SalimMRP.persistence.models.MediaFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Test-Datenbank für die Repository-Decorator: wertet Titel und Facetten aus wie die SQL-Abfrage und zählt,
+// welche Einzel- und Sammelabrufe tatsächlich bis zur Datenbank durchkommen.
+class RecordingMediaRepository implements MediaRepository {
+    private final Map<Integer, Media> storage = new TreeMap<>();
+    final List<List<Integer>> bulkLookups = new ArrayList<>();
+    int singleLookups;
+    private int nextId = 1;
+
+    // Legt ein Medium mit vorgegebener ID ab, ohne als Zugriff gezählt zu werden.
+    void store(Media media) {
+        storage.put(media.getId(), media.copy());
+        nextId = Math.max(nextId, media.getId() + 1);
+    }
+
+    @Override
+    public boolean save(Media media) {
+        media.setId(nextId++);
+        storage.put(media.getId(), media.copy());
+        return true;
+    }
+
+    @Override
+    public List<Media> findAll() {
+        return new ArrayList<>(storage.values());
+    }
+
+    @Override
+    public Media findById(int id) {
+        singleLookups++;
+        return storage.get(id);
+    }
+
+    @Override
+    public List<Media> findByIds(List<Integer> ids) {
+        bulkLookups.add(ids);
+        return ids.stream().map(storage::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<Media> search(MediaFilter filter) {
+        return storage.values().stream()
+                .filter(m -> filter.getTitleQuery() == null
+                        || m.getTitle().toLowerCase().contains(filter.getTitleQuery()))
+                .filter(m -> filter.getGenre() == null || m.getGenres().stream()
+                        .anyMatch(g -> g.trim().toLowerCase().equals(filter.getGenre())))
+                .filter(m -> filter.getMediaType() == null
+                        || m.getMediaType().trim().toLowerCase().equals(filter.getMediaType()))
+                .filter(m -> filter.getReleaseYear() == null || filter.getReleaseYear().equals(m.getReleaseYear()))
+                .toList();
+    }
+
+    @Override
+    public DataVersion findVersion(int id) {
+        return null;
+    }
+
+    @Override
+    public boolean update(Media media) {
+        storage.put(media.getId(), media.copy());
+        return true;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return storage.remove(id) != null;
+    }
+}
@@ -0,0 +1,111 @@
+package org.SalimMRP.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopedConnectionProviderTest {
+
+    @Test
+    void callsInsideScopeShareOneConnectionUntilScopeCloses() throws Exception {
+        FakePool pool = new FakePool();
+        ScopedConnectionProvider provider = new ScopedConnectionProvider(pool);
+
+        try (ScopedConnectionProvider.ConnectionScope ignored = provider.openScope(false)) {
+            try (Connection first = provider.getConnection()) {
+                assertNotNull(first);
+            }
+            try (Connection second = provider.getConnection()) {
+                assertNotNull(second);
+            }
+            assertEquals(1, pool.borrowed);
+            assertEquals(0, pool.closed);
+        }
+
+        assertEquals(1, pool.closed);
+    }
+
+    @Test
+    void readOnlyScopeRunsInOneTransactionAndNestedScopesJoin() throws Exception {
+        FakePool pool = new FakePool();
+        ScopedConnectionProvider provider = new ScopedConnectionProvider(pool);
+
+        try (ScopedConnectionProvider.ConnectionScope outer = provider.openScope(true)) {
+            try (ScopedConnectionProvider.ConnectionScope inner = provider.openScope(false)) {
+                provider.getConnection().close();
+            }
+            provider.getConnection().close();
+        }
+
+        assertEquals(1, pool.borrowed);
+        assertEquals(1, pool.closed);
+        assertTrue(pool.calls.containsAll(List.of("setReadOnly", "rollback")));
+    }
+
+    @Test
+    void snapshotStartIsKnownOnlyWhileAReadOnlyScopeHoldsItsConnection() throws Exception {
+        ScopedConnectionProvider provider = new ScopedConnectionProvider(new FakePool());
+
+        try (ScopedConnectionProvider.ConnectionScope ignored = provider.openScope(true)) {
+            assertEquals(Long.MAX_VALUE, provider.snapshotStartedAt());
+            long before = System.nanoTime();
+            provider.getConnection().close();
+            long startedAt = provider.snapshotStartedAt();
+            assertTrue(startedAt - before >= 0 && System.nanoTime() - startedAt >= 0);
+        }
+        assertEquals(Long.MAX_VALUE, provider.snapshotStartedAt());
+
+        try (ScopedConnectionProvider.ConnectionScope ignored = provider.openScope(false)) {
+            provider.getConnection().close();
+            assertEquals(Long.MAX_VALUE, provider.snapshotStartedAt());
+        }
+    }
+
+    @Test
+    void withoutScopeEveryCallBorrowsFromDelegate() throws Exception {
+        FakePool pool = new FakePool();
+        ScopedConnectionProvider provider = new ScopedConnectionProvider(pool);
+
+        provider.getConnection().close();
+        provider.getConnection().close();
+
+        assertEquals(2, pool.borrowed);
+        assertEquals(2, pool.closed);
+    }
+
+    private static class FakePool implements ConnectionProvider {
+        private int borrowed;
+        private int closed;
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public Connection getConnection() {
+            borrowed++;
+            boolean[] autoCommit = {true};
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        calls.add(method.getName());
+                        return switch (method.getName()) {
+                            case "close" -> {
+                                closed++;
+                                yield null;
+                            }
+                            case "getAutoCommit" -> autoCommit[0];
+                            case "setAutoCommit" -> {
+                                autoCommit[0] = (Boolean) args[0];
+                                yield null;
+                            }
+                            case "isClosed" -> false;
+                            default -> null;
+                        };
+                    });
+        }
+    }
+}
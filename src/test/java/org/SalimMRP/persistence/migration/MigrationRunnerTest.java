@@ -0,0 +1,30 @@
+package org.SalimMRP.persistence.migration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MigrationRunnerTest {
+
+    @Test
+    void loadsBundledMigrationsInVersionOrder() {
+        List<Migration> migrations = MigrationRunner.loadFromClasspath(MigrationRunner.DEFAULT_LOCATION);
+
+        assertTrue(migrations.size() >= 2);
+        for (int i = 0; i < migrations.size(); i++) {
+            assertEquals(i + 1, migrations.get(i).getVersion());
+            assertFalse(migrations.get(i).getSql().isBlank());
+        }
+        assertEquals("performance indexes", migrations.get(1).getDescription());
+    }
+
+    @Test
+    void rejectsInvalidFileNamesAndDuplicateVersions() {
+        assertThrows(IllegalArgumentException.class, () -> Migration.fromFile("indexes.sql", "SELECT 1"));
+
+        List<Migration> duplicates = List.of(new Migration(1, "a", "SELECT 1"), new Migration(1, "b", "SELECT 2"));
+        assertThrows(IllegalArgumentException.class, () -> new MigrationRunner(() -> null, duplicates));
+    }
+}
@@ -0,0 +1,123 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.SalimMRP.persistence.ConnectionProvider;
+import org.SalimMRP.persistence.ScopedConnectionProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionScopeFilterTest {
+
+    private final CountingPool pool = new CountingPool();
+    private final ScopedConnectionProvider connectionProvider = new ScopedConnectionProvider(pool);
+    private final ResponseWriter writer = new ResponseWriter(new ObjectMapper());
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void connectionGoesBackToThePoolBeforeTheBodyIsWritten() throws Exception {
+        server.createContext("/media", exchange -> {
+            borrowAndRelease();
+            borrowAndRelease();
+            writer.sendJson(exchange, 200, new PoolProbe(pool));
+        }).getFilters().add(new ConnectionScopeFilter(connectionProvider, true));
+        server.start();
+
+        HttpResponse<String> response = get("/media");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"connectionsInUse\":0}", response.body());
+        assertEquals(1, pool.borrowed.get(), "both repository calls shared one connection");
+        assertEquals(0, pool.inUse.get());
+    }
+
+    @Test
+    void scopeIsClosedWhenTheHandlerFails() throws Exception {
+        server.createContext("/broken", exchange -> {
+            borrowAndRelease();
+            throw new IllegalStateException("boom");
+        }).getFilters().add(new ConnectionScopeFilter(connectionProvider, false));
+        server.start();
+
+        assertThrows(IOException.class, () -> get("/broken"));
+        assertEquals(0, pool.inUse.get());
+    }
+
+    private void borrowAndRelease() {
+        try (Connection ignored = connectionProvider.getConnection()) {
+            assertNotNull(ignored);
+        } catch (SQLException e) {
+            fail(e);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        return HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Wird erst beim Serialisieren ausgewertet, also während der Body geschrieben wird.
+    public static class PoolProbe {
+        private final CountingPool pool;
+
+        PoolProbe(CountingPool pool) {
+            this.pool = pool;
+        }
+
+        public int getConnectionsInUse() {
+            return pool.inUse.get();
+        }
+    }
+
+    private static class CountingPool implements ConnectionProvider {
+        private final AtomicInteger borrowed = new AtomicInteger();
+        private final AtomicInteger inUse = new AtomicInteger();
+
+        @Override
+        public Connection getConnection() {
+            borrowed.incrementAndGet();
+            inUse.incrementAndGet();
+            boolean[] autoCommit = {true};
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            inUse.decrementAndGet();
+                            yield null;
+                        }
+                        case "getAutoCommit" -> autoCommit[0];
+                        case "setAutoCommit" -> {
+                            autoCommit[0] = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "isClosed" -> false;
+                        default -> null;
+                    });
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.SalimMRP.persistence.models.DataVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseWriterTest {
+
+    private final ResponseWriter writer = new ResponseWriter(new ObjectMapper());
+    private HttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsJsonWithChunkedEncoding() throws Exception {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            items.add(Map.of("id", i, "title", "Media " + i));
+        }
+        server.createContext("/json", exchange -> writer.sendJson(exchange, 200, items));
+        server.start();
+
+        HttpResponse<String> response = get("/json");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null));
+        List<?> parsed = new ObjectMapper().readValue(response.body(), List.class);
+        assertEquals(5_000, parsed.size());
+    }
+
+    @Test
+    void sendsTextWithContentLength() throws Exception {
+        server.createContext("/text", exchange -> writer.sendText(exchange, 404, "Not found"));
+        server.createContext("/empty", exchange -> writer.sendText(exchange, 204, ""));
+        server.start();
+
+        HttpResponse<String> text = get("/text");
+        assertEquals(404, text.statusCode());
+        assertEquals("9", text.headers().firstValue("Content-Length").orElse(null));
+        assertEquals("Not found", text.body());
+
+        HttpResponse<String> empty = get("/empty");
+        assertEquals(204, empty.statusCode());
+        assertTrue(empty.body().isEmpty());
+    }
+
+    @Test
+    void compressesLargeResponsesWhenClientAcceptsGzip() throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add("Media " + i);
+        }
+        server.createContext("/large", exchange -> writer.sendJson(exchange, 200, items));
+        server.createContext("/small", exchange -> writer.sendJson(exchange, 200, List.of("tiny")));
+        server.start();
+
+        HttpResponse<byte[]> large = getBytes("/large", "br;q=1.0, gzip;q=0.8, deflate;q=0.5");
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("Accept-Encoding", large.headers().firstValue("Vary").orElse(null));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(large.body()))) {
+            assertEquals(items, new ObjectMapper().readValue(in, List.class));
+        }
+
+        HttpResponse<byte[]> deflated = getBytes("/large", "gzip;q=0, deflate");
+        assertEquals("deflate", deflated.headers().firstValue("Content-Encoding").orElse(null));
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(deflated.body()))) {
+            assertEquals(items, new ObjectMapper().readValue(in, List.class));
+        }
+
+        HttpResponse<byte[]> small = getBytes("/small", "gzip");
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals("[\"tiny\"]", new String(small.body(), StandardCharsets.UTF_8));
+        assertEquals(String.valueOf(small.body().length), small.headers().firstValue("Content-Length").orElse(null));
+    }
+
+    @Test
+    void negotiatesEncodingFromAcceptHeader() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip, deflate, br"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.2, deflate;q=0.9"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, *"));
+        assertNull(ContentEncoding.negotiate("identity"));
+        assertNull(ContentEncoding.negotiate(null));
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithNotModified() throws Exception {
+        String etag = EntityTags.of("m42", 7, DataVersion.of(3, 11));
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            items.add("Rating " + i);
+        }
+        server.createContext("/media", exchange -> {
+            if (!writer.notModified(exchange, etag)) {
+                writer.sendJson(exchange, 200, items);
+            }
+        });
+        server.start();
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/media");
+
+        HttpResponse<byte[]> first = client.send(HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        String compressedTag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals("\"m42.u7.3.b-gzip\"", compressedTag);
+
+        HttpResponse<byte[]> revalidated = client.send(HttpRequest.newBuilder(uri)
+                .header("If-None-Match", compressedTag).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, revalidated.statusCode());
+        assertEquals(0, revalidated.body().length);
+        assertEquals(etag, revalidated.headers().firstValue("ETag").orElse(null));
+
+        HttpResponse<byte[]> changed = client.send(HttpRequest.newBuilder(uri)
+                .header("If-None-Match", EntityTags.of("m42", 7, DataVersion.of(3, 12))).build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, changed.statusCode());
+    }
+
+    @Test
+    void reusesWriterPerPayloadType() {
+        assertSame(writer.writerFor(List.of("a")), writer.writerFor(List.of("b")));
+        assertSame(writer.writerFor(null), writer.writerFor(null));
+    }
+
+    private HttpResponse<byte[]> getBytes(String path, String acceptEncoding) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept-Encoding", acceptEncoding).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void fingerprintFollowsTheSerializedContent() throws Exception {
+        List<Map<String, Object>> page = List.of(Map.of("id", 1, "averageScore", 4.5));
+
+        assertEquals(writer.fingerprint(page), writer.fingerprint(List.of(Map.of("id", 1, "averageScore", 4.5))));
+        assertNotEquals(writer.fingerprint(page), writer.fingerprint(List.of(Map.of("id", 1, "averageScore", 4.0))));
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,53 @@
+package org.SalimMRP.presentation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouterTest {
+
+    private final Router<String> router = Router.<String>builder()
+            .route("GET", "/api/media", "list")
+            .route("GET", "/api/media/recommendations", "recommendations")
+            .route("GET", "/api/media/{mediaId:id}", "get")
+            .route("PUT", "/api/media/{mediaId:id}", "update")
+            .route("POST", "/api/media/{mediaId:id}/favorites", "favorite")
+            .route("GET", "/api/users/{username}/profile", "profile")
+            .build();
+
+    @Test
+    void matchesLiteralsBeforeParametersAndExtractsValues() {
+        Router.Match<String> literal = router.match("GET", "/API/Media/recommendations/");
+        assertEquals(Router.Status.FOUND, literal.status());
+        assertEquals("recommendations", literal.target());
+
+        Router.Match<String> favorite = router.match("post", "/api/media/42/favorites");
+        assertEquals("favorite", favorite.target());
+        assertEquals(42, favorite.parameters().getId("mediaId"));
+
+        Router.Match<String> profile = router.match("GET", "/api/users/alice/profile");
+        assertEquals("alice", profile.parameters().get("username"));
+    }
+
+    @Test
+    void reportsInvalidIdsUnknownPathsAndWrongMethods() {
+        Router.Match<String> invalid = router.match("GET", "/api/media/abc");
+        assertEquals(Router.Status.INVALID_PARAMETER, invalid.status());
+        assertEquals("media id", invalid.invalidParameter());
+        assertEquals(Router.Status.INVALID_PARAMETER, router.match("GET", "/api/media/0").status());
+
+        assertEquals(Router.Status.NOT_FOUND, router.match("GET", "/api/media/1/unknown").status());
+        assertEquals(Router.Status.NOT_FOUND, router.match("GET", "/api/users/alice").status());
+
+        Router.Match<String> wrongMethod = router.match("DELETE", "/api/media/1");
+        assertEquals(Router.Status.METHOD_NOT_ALLOWED, wrongMethod.status());
+        assertEquals(2, wrongMethod.allowedMethods().size());
+    }
+
+    @Test
+    void rejectsDuplicateRoutes() {
+        Router.Builder<String> builder = Router.<String>builder().route("GET", "/api/media", "a");
+        assertThrows(IllegalArgumentException.class, () -> builder.route("get", "/api/media/", "b"));
+    }
+}
@@ -0,0 +1,196 @@
+package org.SalimMRP.presentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.SalimMRP.business.DefaultUserService;
+import org.SalimMRP.business.MediaService;
+import org.SalimMRP.business.ProfileService;
+import org.SalimMRP.business.auth.InMemoryTokenService;
+import org.SalimMRP.business.auth.PasswordHasher;
+import org.SalimMRP.persistence.ConnectionProvider;
+import org.SalimMRP.persistence.ScopedConnectionProvider;
+import org.SalimMRP.persistence.UserRepository;
+import org.SalimMRP.persistence.models.DataVersion;
+import org.SalimMRP.persistence.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserControllerTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int LOGINS = 6;
+
+    @Test
+    void loginsWaitingForTheHasherDoNotHoldPooledConnections() throws Exception {
+        BoundedPool pool = new BoundedPool(POOL_SIZE);
+        ScopedConnectionProvider connectionProvider = new ScopedConnectionProvider(pool);
+        BlockingHasher hasher = new BlockingHasher(LOGINS);
+        DefaultUserService userService = new DefaultUserService(
+                new PooledUserRepository(connectionProvider), hasher, new InMemoryTokenService());
+        UserController controller = new UserController(userService, unused(ProfileService.class),
+                unused(MediaService.class), new ObjectMapper());
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        controller.registerRoutes(server, List.of(new ConnectionScopeFilter(connectionProvider, true)));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            URI login = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/users/login");
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(login)
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"alice\",\"password\":\"secret\"}"))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+
+            assertTrue(hasher.waiting.await(5, TimeUnit.SECONDS), "every login reaches the hasher");
+            assertEquals(0, pool.inUse(), "no connection is held while hashing");
+
+            hasher.release.countDown();
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+            }
+        } finally {
+            hasher.release.countDown();
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unused(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Pool mit fester Größe; wer keine Verbindung bekommt, scheitert nach kurzer Wartezeit.
+    private static class BoundedPool implements ConnectionProvider {
+        private final int size;
+        private final Semaphore permits;
+
+        BoundedPool(int size) {
+            this.size = size;
+            this.permits = new Semaphore(size);
+        }
+
+        int inUse() {
+            return size - permits.availablePermits();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                if (!permits.tryAcquire(2, TimeUnit.SECONDS)) {
+                    throw new SQLException("pool exhausted");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("interrupted");
+            }
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                permits.release();
+                            }
+                            yield null;
+                        }
+                        case "getAutoCommit" -> true;
+                        case "isClosed" -> closed[0];
+                        default -> null;
+                    });
+        }
+    }
+
+    // Jeder Aufruf leiht sich eine Verbindung wie die JDBC-Repositories.
+    private static class PooledUserRepository implements UserRepository {
+        private final ConnectionProvider connectionProvider;
+
+        PooledUserRepository(ConnectionProvider connectionProvider) {
+            this.connectionProvider = connectionProvider;
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            try (Connection ignored = connectionProvider.getConnection()) {
+                return new User(1, username, "hash:secret");
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean save(User user) {
+            return false;
+        }
+
+        @Override
+        public User findById(int id) {
+            return null;
+        }
+
+        @Override
+        public boolean updatePassword(int userId, String passwordHash) {
+            return false;
+        }
+
+        @Override
+        public DataVersion findProfileVersion(int userId) {
+            return null;
+        }
+    }
+
+    // Hält alle Prüfungen an, bis jeder Login den Hasher erreicht hat.
+    private static class BlockingHasher implements PasswordHasher {
+        private final CountDownLatch waiting;
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingHasher(int logins) {
+            this.waiting = new CountDownLatch(logins);
+        }
+
+        @Override
+        public String hash(String plainText) {
+            return "hash:" + plainText;
+        }
+
+        @Override
+        public boolean matches(String plainText, String hash) {
+            waiting.countDown();
+            try {
+                release.await(Duration.ofSeconds(10).toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return hash.equals(hash(plainText));
+        }
+    }
+}